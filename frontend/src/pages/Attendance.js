@@ -69,8 +69,15 @@ const Attendance = () => {
   const handleBulkSave = async (bulkData) => {
     try {
       const response = await attendanceAPI.markBulkAttendance(bulkData);
-      setAttendance([...attendance, ...response.data]);
-      toast.success('Bulk attendance marked successfully');
+      const saved = response.data.rows.filter(row => row.attendance).map(row => row.attendance);
+      const savedIds = new Set(saved.map(record => record.id));
+      // Re-submitted rows are updated in place, so replace any copies already in the list
+      setAttendance([...attendance.filter(record => !savedIds.has(record.id)), ...saved]);
+      if (response.data.rejected > 0) {
+        toast.error(`${response.data.rejected} attendance row(s) were not saved`);
+      } else {
+        toast.success('Bulk attendance marked successfully');
+      }
     } catch (error) {
       toast.error('Failed to mark bulk attendance');
     } finally {
@@ -94,6 +94,10 @@ export const attendanceAPI = {
   updateAttendance: (id, attendanceData) => api.put(`/attendance/${id}`, attendanceData),
   deleteAttendance: (id) => api.delete(`/attendance/${id}`),
   markBulkAttendance: (attendanceList) => api.post('/attendance/mark', attendanceList),
+  getRoster: (params) => api.get('/attendance/roster', { params }),
+  submitRoster: (submission) => api.post('/attendance/roster', submission),
+  getCheckInToken: (branchId) => api.get('/attendance/check-in/token', { params: { branchId } }),
+  checkIn: (token) => api.post('/attendance/check-in', { token }),
 };
 
 // Notification API
@@ -176,6 +180,16 @@ export const resultAPI = {
   createResult: (resultData) => api.post('/results', resultData),
   updateResult: (id, resultData) => api.put(`/results/${id}`, resultData),
   deleteResult: (id) => api.delete(`/results/${id}`),
+  uploadResults: (file) => {
+    const formData = new FormData();
+    formData.append('file', file);
+    return api.post('/results/upload', formData, {
+      headers: { 'Content-Type': 'multipart/form-data' }
+    });
+  },
+  downloadUploadReport: (reportId) => api.get(`/results/upload/reports/${reportId}`, { responseType: 'blob' }),
+  getGpaTranscript: (studentId) => api.get(`/results/gpa/student/${studentId}`),
+  getBranchGpa: (branchId) => api.get(`/results/gpa/branch/${branchId}`),
 };
 
 // Chatbot API
@@ -201,8 +215,10 @@ export const videoSessionAPI = {
   getTeacherSessions: (teacherId) => api.get(`/video-sessions/teacher/${teacherId}`),
   getSessionDetails: (roomId) => api.get(`/video-sessions/${roomId}`),
   joinSession: (roomId) => api.post(`/video-sessions/${roomId}/join`),
+  leaveSession: (roomId) => api.post(`/video-sessions/${roomId}/leave`),
   startSession: (roomId) => api.post(`/video-sessions/${roomId}/start`),
-  endSession: (roomId) => api.post(`/video-sessions/${roomId}/end`),
+  endSession: (roomId, recordAttendance = false) =>
+    api.post(`/video-sessions/${roomId}/end`, null, { params: { recordAttendance } }),
   generateZegoToken: (tokenRequest) => api.post('/video-sessions/zego/token', tokenRequest),
 };
 
@@ -0,0 +1,124 @@
+package com.ssid.collegeportal.controller;
+
+import com.ssid.collegeportal.dto.AbsentStudentDTO;
+import com.ssid.collegeportal.dto.AttendanceInsightDTO;
+import com.ssid.collegeportal.dto.AttendanceRollupRowDTO;
+import com.ssid.collegeportal.service.AttendanceBitmapIndex;
+import com.ssid.collegeportal.service.AttendanceRollupService;
+import com.ssid.collegeportal.service.LowAttendanceAlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/attendance/analytics")
+public class AttendanceAnalyticsController {
+
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+
+    @Autowired
+    private AttendanceBitmapIndex attendanceBitmapIndex;
+
+    @Autowired
+    private LowAttendanceAlertService lowAttendanceAlertService;
+
+    @GetMapping("/students")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public List<AttendanceRollupRowDTO> getStudentAttendance(@RequestParam(required = false) Long branchId,
+                                                             @RequestParam(required = false) Integer semester,
+                                                             @RequestParam(required = false) Double belowPercent) {
+        return attendanceRollupService.getStudentRows(branchId, semester, belowPercent);
+    }
+
+    @GetMapping("/students/{studentId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and #studentId == principal.id)")
+    public List<AttendanceRollupRowDTO> getStudentSemesters(@PathVariable Long studentId) {
+        return attendanceRollupService.getStudentSemesters(studentId);
+    }
+
+    @GetMapping("/branches")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public List<AttendanceRollupRowDTO> getBranchTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        return attendanceRollupService.getBranchTotals(from != null ? from : end.minusDays(29), end);
+    }
+
+    @GetMapping("/branches/{branchId}/daily")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public List<AttendanceRollupRowDTO> getBranchDays(
+            @PathVariable Long branchId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        return attendanceRollupService.getBranchDays(branchId, from != null ? from : end.minusDays(29), end);
+    }
+
+    @GetMapping("/students/{studentId}/insights")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and #studentId == principal.id)")
+    public ResponseEntity<AttendanceInsightDTO> getStudentInsights(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean heatmap) {
+        if (!attendanceBitmapIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(364);
+        AttendanceBitmapIndex.Summary summary = attendanceBitmapIndex.summarize(studentId, start, end);
+        AttendanceInsightDTO dto = new AttendanceInsightDTO();
+        dto.setStudentId(studentId);
+        dto.setFrom(start);
+        dto.setTo(end);
+        dto.setDaysHeld(summary.getDaysHeld());
+        dto.setDaysPresent(summary.getDaysPresent());
+        dto.setPercentage(summary.getDaysHeld() == 0 ? 0.0 : summary.getDaysPresent() * 100.0 / summary.getDaysHeld());
+        dto.setCurrentStreak(summary.getCurrentStreak());
+        dto.setLongestStreak(summary.getLongestStreak());
+        if (heatmap) {
+            dto.setCalendar(attendanceBitmapIndex.calendar(studentId, start, end));
+        }
+        return ResponseEntity.ok(dto);
+    }
+
+    @GetMapping("/branches/{branchId}/absent")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public ResponseEntity<List<AbsentStudentDTO>> getBranchAbsentees(
+            @PathVariable Long branchId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (!attendanceBitmapIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        List<AbsentStudentDTO> absentees = new ArrayList<>();
+        attendanceBitmapIndex.absentees(branchId, date != null ? date : LocalDate.now()).forEach((id, name) -> {
+            AbsentStudentDTO dto = new AbsentStudentDTO();
+            dto.setStudentId(id);
+            dto.setStudentName(name);
+            absentees.add(dto);
+        });
+        return ResponseEntity.ok(absentees);
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> rebuild() {
+        return attendanceRollupService.rebuild();
+    }
+
+    @PostMapping("/alerts/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> runLowAttendanceAlerts() {
+        return lowAttendanceAlertService.run();
+    }
+}
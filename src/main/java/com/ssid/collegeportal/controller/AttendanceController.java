@@ -2,15 +2,27 @@ package com.ssid.collegeportal.controller;
 
 import com.ssid.collegeportal.dto.AttendanceRequestDTO;
 import com.ssid.collegeportal.dto.AttendanceResponseDTO;
+import com.ssid.collegeportal.dto.AttendanceRosterDTO;
+import com.ssid.collegeportal.dto.AttendanceRosterSubmitDTO;
+import com.ssid.collegeportal.dto.AttendanceSummaryDTO;
+import com.ssid.collegeportal.dto.BulkAttendanceResponseDTO;
 import com.ssid.collegeportal.model.Attendance;
+import com.ssid.collegeportal.service.AttendanceBulkService;
+import com.ssid.collegeportal.service.AttendanceCheckInService;
+import com.ssid.collegeportal.service.AttendanceRosterService;
 import com.ssid.collegeportal.service.AttendanceService;
 import com.ssid.collegeportal.repository.StudentRepository;
 import com.ssid.collegeportal.repository.FacultyRepository;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -19,18 +31,37 @@ public class AttendanceController {
     @Autowired
     private AttendanceService attendanceService;
     @Autowired
+    private AttendanceBulkService attendanceBulkService;
+    @Autowired
+    private AttendanceCheckInService attendanceCheckInService;
+    @Autowired
+    private AttendanceRosterService attendanceRosterService;
+    @Autowired
     private StudentRepository studentRepository;
     @Autowired
     private FacultyRepository facultyRepository;
 
     @GetMapping("/my")
     @PreAuthorize("hasRole('STUDENT')")
-    public List<AttendanceResponseDTO> getMyAttendance() {
+    public List<AttendanceResponseDTO> getMyAttendance(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         com.ssid.collegeportal.model.Student student = studentRepository.findByUserEmail(email);
         if (student == null) return java.util.Collections.emptyList();
-        return attendanceService.getAttendanceByStudentId(student.getId()).stream().map(this::toResponseDTO).collect(Collectors.toList());
+        return attendanceService.getAttendanceByStudentId(student.getId(), from, to).stream().map(this::toResponseDTO).collect(Collectors.toList());
+    }
+
+    @GetMapping("/my/summary")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<AttendanceSummaryDTO> getMyAttendanceSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        com.ssid.collegeportal.model.Student student = studentRepository.findByUserEmail(auth.getName());
+        if (student == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(attendanceService.getAttendanceSummary(student.getId(), from, to));
     }
 
     @GetMapping
@@ -49,20 +80,42 @@ public class AttendanceController {
 
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and #studentId == principal.id)")
-    public List<AttendanceResponseDTO> getAttendanceByStudent(@PathVariable Long studentId) {
-        return attendanceService.getAttendanceByStudentId(studentId).stream().map(this::toResponseDTO).collect(Collectors.toList());
+    public List<AttendanceResponseDTO> getAttendanceByStudent(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return attendanceService.getAttendanceByStudentId(studentId, from, to).stream().map(this::toResponseDTO).collect(Collectors.toList());
+    }
+
+    @GetMapping("/student/{studentId}/summary")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and #studentId == principal.id)")
+    public AttendanceSummaryDTO getAttendanceSummaryByStudent(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return attendanceService.getAttendanceSummary(studentId, from, to);
     }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
-    public AttendanceResponseDTO createAttendance(@RequestBody AttendanceRequestDTO dto) {
-        return toResponseDTO(attendanceService.createAttendance(dto));
+    public ResponseEntity<?> createAttendance(@RequestBody AttendanceRequestDTO dto) {
+        try {
+            return ResponseEntity.ok(toResponseDTO(attendanceService.createAttendance(dto)));
+        } catch (AttendanceService.DuplicateAttendanceException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage(), "existingId", e.getExistingId()));
+        }
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
-    public AttendanceResponseDTO updateAttendance(@PathVariable Long id, @RequestBody AttendanceRequestDTO dto) {
-        return toResponseDTO(attendanceService.updateAttendance(id, dto));
+    public ResponseEntity<?> updateAttendance(@PathVariable Long id, @RequestBody AttendanceRequestDTO dto) {
+        try {
+            return ResponseEntity.ok(toResponseDTO(attendanceService.updateAttendance(id, dto)));
+        } catch (AttendanceService.DuplicateAttendanceException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage(), "existingId", e.getExistingId()));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -74,22 +127,76 @@ public class AttendanceController {
 
     @PostMapping("/mark")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
-    public ResponseEntity<List<AttendanceResponseDTO>> markBulkAttendance(@RequestBody List<AttendanceRequestDTO> attendanceList) {
+    public ResponseEntity<BulkAttendanceResponseDTO> markBulkAttendance(@RequestBody List<AttendanceRequestDTO> attendanceList) {
+        try {
+            return ResponseEntity.ok(attendanceBulkService.upsert(attendanceList));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Cohort roster with the faculty's marks for the day; submit changes against its version
+    @GetMapping("/roster")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public ResponseEntity<AttendanceRosterDTO> getRoster(
+            @RequestParam Long branchId,
+            @RequestParam int year,
+            @RequestParam int semester,
+            @RequestParam(required = false) Long facultyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         try {
-            List<Attendance> createdAttendance = attendanceList.stream()
-                .map(dto -> attendanceService.createAttendance(dto))
-                .collect(Collectors.toList());
-            
-            List<AttendanceResponseDTO> responseDTOs = createdAttendance.stream()
-                .map(this::toResponseDTO)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(responseDTOs);
-        } catch (Exception e) {
+            Long faculty = attendanceRosterService.resolveFacultyId(facultyId, auth.getName());
+            return ResponseEntity.ok(attendanceRosterService.getRoster(branchId, year, semester, faculty,
+                    date != null ? date : LocalDate.now()));
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping("/roster")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public ResponseEntity<?> submitRoster(@Valid @RequestBody AttendanceRosterSubmitDTO submission) {
+        org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        try {
+            Long faculty = attendanceRosterService.resolveFacultyId(submission.getFacultyId(), auth.getName());
+            return ResponseEntity.ok(attendanceRosterService.submit(submission, faculty));
+        } catch (AttendanceRosterService.RosterConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getCurrent());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Current QR check-in code; the faculty screen polls this before the code expires
+    @GetMapping("/check-in/token")
+    @PreAuthorize("hasRole('FACULTY')")
+    public ResponseEntity<Map<String, Object>> getCheckInToken(@RequestParam(required = false) Long branchId) {
+        org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        AttendanceCheckInService.Token token = attendanceCheckInService.issueToken(auth.getName(), branchId);
+        return ResponseEntity.ok(Map.of("token", token.getValue(), "expiresAt", token.getExpiresAt()));
+    }
+
+    @PostMapping("/check-in")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<Map<String, String>> checkIn(@RequestBody Map<String, String> body) {
+        org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        try {
+            String status = attendanceCheckInService.checkIn(auth.getName(), body.get("token"));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("status", status));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/check-in/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> getCheckInStats() {
+        return attendanceCheckInService.getStats();
+    }
+
     // Helper for SpEL in @PreAuthorize
     public boolean isOwnAttendance(Long attendanceId) {
         // Get current authenticated user's email from security context
@@ -1,10 +1,14 @@
 package com.ssid.collegeportal.controller;
 
+import com.ssid.collegeportal.dto.DocumentSearchResultDTO;
 import com.ssid.collegeportal.model.DocumentFile;
 import com.ssid.collegeportal.service.DocumentFileService;
+import com.ssid.collegeportal.service.DownloadBandwidthService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,9 +20,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/files")
@@ -27,10 +33,13 @@ public class DocumentFileController {
     private static final Logger logger = LoggerFactory.getLogger(DocumentFileController.class);
 
     private final DocumentFileService documentFileService;
+    private final DownloadBandwidthService downloadBandwidthService;
 
     @Autowired
-    public DocumentFileController(DocumentFileService documentFileService) {
+    public DocumentFileController(DocumentFileService documentFileService,
+                                  DownloadBandwidthService downloadBandwidthService) {
         this.documentFileService = documentFileService;
+        this.downloadBandwidthService = downloadBandwidthService;
     }
 
     @PostMapping("/upload")
@@ -54,23 +63,32 @@ public class DocumentFileController {
 
     @GetMapping("/download/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
-    public ResponseEntity<byte[]> downloadFile(@PathVariable Long id) {
+    public ResponseEntity<Resource> downloadFile(@PathVariable Long id) {
         try {
             DocumentFile file = documentFileService.getFileOrThrow(id);
-
             // Properly encode filename for Content-Disposition header
             String encodedFilename = URLEncoder.encode(file.getFileName(), StandardCharsets.UTF_8.toString())
                     .replace("+", "%20");
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(file.getFileType()))
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                           "attachment; filename*=UTF-8''" + encodedFilename +
-                           "; filename=\"" + file.getFileName().replace("\"", "\\\"") + "\"")
-                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(file.getFileSize()))
-                    .header(HttpHeaders.CACHE_CONTROL, "no-cache")
-                    .body(file.getFileData());
-
+            InputStream content = downloadBandwidthService.throttle(documentFileService.openContent(file),
+                    SecurityContextHolder.getContext().getAuthentication());
+            try {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(file.getFileType()))
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                               "attachment; filename*=UTF-8''" + encodedFilename +
+                               "; filename=\"" + file.getFileName().replace("\"", "\\\"") + "\"")
+                        .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(file.getFileSize()))
+                        .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                        .body(new InputStreamResource(content));
+            } catch (RuntimeException e) {
+                // Releases the download slot and the content store handle
+                content.close();
+                throw e;
+            }
+
+        } catch (DownloadBandwidthService.TooManyDownloadsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
         } catch (RuntimeException e) {
             logger.warn("File download failed for ID: {}, error: {}", id, e.getMessage());
             return ResponseEntity.notFound().build();
@@ -80,6 +98,12 @@ public class DocumentFileController {
         }
     }
 
+    @GetMapping("/download-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> getDownloadStats() {
+        return downloadBandwidthService.getStats();
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
     public ResponseEntity<DocumentFile> getFileInfo(@PathVariable Long id) {
@@ -109,6 +133,14 @@ public class DocumentFileController {
         return ResponseEntity.ok(files);
     }
 
+    @GetMapping("/search/content")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
+    public ResponseEntity<List<DocumentSearchResultDTO>> searchFileContent(@RequestParam String q,
+                                                                           @RequestParam(defaultValue = "20") int limit) {
+        List<DocumentSearchResultDTO> results = documentFileService.searchFilesByContent(q, Math.min(Math.max(limit, 1), 100));
+        return ResponseEntity.ok(results);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
     public ResponseEntity<String> deleteFile(@PathVariable Long id) {
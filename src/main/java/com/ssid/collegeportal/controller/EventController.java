@@ -3,22 +3,25 @@ package com.ssid.collegeportal.controller;
 import com.ssid.collegeportal.dto.EventRequestDTO;
 import com.ssid.collegeportal.dto.EventResponseDTO;
 import com.ssid.collegeportal.model.Event;
+import com.ssid.collegeportal.service.EventAttachmentService;
 import com.ssid.collegeportal.service.EventService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,6 +29,8 @@ import java.util.stream.Collectors;
 public class EventController {
     @Autowired
     private EventService eventService;
+    @Autowired
+    private EventAttachmentService eventAttachmentService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
@@ -77,36 +82,41 @@ public class EventController {
     private void handleAttachment(EventRequestDTO dto) {
         MultipartFile file = dto.getAttachment();
         if (file != null && !file.isEmpty()) {
-            String uploadDir = System.getProperty("user.dir") + File.separator + "uploads";
-            try {
-                Files.createDirectories(Paths.get(uploadDir));
-                String filename = System.currentTimeMillis() + "_" + StringUtils.cleanPath(file.getOriginalFilename());
-                Path targetPath = Paths.get(uploadDir).resolve(filename).normalize();
-                Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-                dto.setAttachmentPath(filename);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to store attachment", e);
-            }
+            dto.setAttachmentPath(eventAttachmentService.store(file));
         }
     }
 
     @GetMapping("/attachment/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
-    public ResponseEntity<byte[]> downloadAttachment(@PathVariable Long id) {
+    public ResponseEntity<Resource> downloadAttachment(@PathVariable Long id, WebRequest request) {
         Event event = eventService.getEventById(id).orElse(null);
         if (event == null || event.getAttachmentPath() == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        EventAttachmentService.Attachment attachment = eventAttachmentService.open(event.getAttachmentPath()).orElse(null);
+        if (attachment == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        String uploadDir = System.getProperty("user.dir") + File.separator + "uploads";
-        Path filePath = Paths.get(uploadDir).resolve(event.getAttachmentPath()).normalize();
-        try {
-            byte[] fileBytes = Files.readAllBytes(filePath);
-            String filename = event.getAttachmentPath();
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=" + filename)
-                    .body(fileBytes);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        if (request.checkNotModified(attachment.getETag(), attachment.getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(attachment.getETag())
+                    .lastModified(attachment.getLastModified())
+                    .build();
         }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(attachment.getContentType()))
+                .contentLength(attachment.getSize())
+                .eTag(attachment.getETag())
+                .lastModified(attachment.getLastModified())
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(10)).cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(attachment.getFileName(), StandardCharsets.UTF_8).build().toString())
+                .body(attachment.getResource());
+    }
+
+    @GetMapping("/attachments/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> getAttachmentCacheStats() {
+        return eventAttachmentService.getCacheStats();
     }
 }
@@ -2,27 +2,47 @@ package com.ssid.collegeportal.controller;
 
 import com.ssid.collegeportal.dto.NoteRequestDTO;
 import com.ssid.collegeportal.dto.NoteResponseDTO;
+import com.ssid.collegeportal.dto.NoteSearchResultDTO;
+import com.ssid.collegeportal.dto.NoteTrendingDTO;
 import com.ssid.collegeportal.model.DocumentFile;
 import com.ssid.collegeportal.model.Note;
 import com.ssid.collegeportal.service.DocumentFileService;
+import com.ssid.collegeportal.service.DownloadBandwidthService;
+import com.ssid.collegeportal.service.NoteBundleService;
 import com.ssid.collegeportal.service.NoteService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/notes")
 public class NoteController {
     private static final Logger logger = LoggerFactory.getLogger(NoteController.class);
+    private static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "updatedAt", "title", "subject");
 
     @Autowired
     private NoteService noteService;
@@ -30,34 +50,119 @@ public class NoteController {
     @Autowired
     private DocumentFileService documentFileService;
 
+    @Autowired
+    private DownloadBandwidthService downloadBandwidthService;
+
+    @Autowired
+    private NoteBundleService noteBundleService;
+
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
     public List<NoteResponseDTO> getAllNotes() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
 
-        return noteService.getNotesForUser(email).stream()
-                .map(this::toResponseDTO).collect(Collectors.toList());
+        return noteService.getNoteDTOsForUser(email);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
+    public List<NoteSearchResultDTO> searchNotes(@RequestParam("q") String query,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return noteService.searchNotesForUser(auth.getName(), query, Math.min(Math.max(limit, 1), 100));
+    }
+
+    @GetMapping("/bundle")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
+    public ResponseEntity<StreamingResponseBody> downloadBundle(
+            @RequestParam(required = false) String branchName,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer semester,
+            WebRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        NoteBundleService.Bundle bundle = noteService.getBundleForUser(auth.getName(), branchName, year, semester).orElse(null);
+        if (bundle == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(bundle.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(bundle.getETag()).build();
+        }
+        DownloadBandwidthService.Permit permit;
+        try {
+            permit = downloadBandwidthService.acquire(auth);
+        } catch (DownloadBandwidthService.TooManyDownloadsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        StreamingResponseBody body = out -> {
+            try (permit) {
+                noteBundleService.writeTo(bundle, out, permit);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .eTag(bundle.getETag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(bundle.getDownloadName(), StandardCharsets.UTF_8).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/trending")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
+    public List<NoteTrendingDTO> getTrendingNotes(@RequestParam(defaultValue = "7") int days,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return noteService.getTrendingForUser(auth.getName(), Math.min(days, 90), Math.min(Math.max(limit, 1), 50));
+    }
+
+    @GetMapping("/trending/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> getAccessTrackerStats() {
+        return noteService.getAccessTrackerStats();
+    }
+
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> getCohortCacheStats() {
+        return noteService.getCohortCacheStats();
+    }
+
+    @GetMapping("/paged")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
+    public Page<NoteResponseDTO> getNotesPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String sortField = SORTABLE_FIELDS.contains(sortBy) ? sortBy : "createdAt";
+        Sort sort = Sort.by("asc".equalsIgnoreCase(direction) ? Sort.Direction.ASC : Sort.Direction.DESC, sortField);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100), sort);
+        return noteService.getNotesPageForUser(auth.getName(), pageable).map(noteService::toResponseDTO);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
     public ResponseEntity<NoteResponseDTO> getNoteById(@PathVariable Long id) {
         return noteService.getNoteById(id)
-                .map(n -> ResponseEntity.ok(toResponseDTO(n)))
+                .map(n -> {
+                    noteService.recordView(n);
+                    return ResponseEntity.ok(noteService.toResponseDTO(n));
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
     public NoteResponseDTO createNote(@ModelAttribute NoteRequestDTO dto) {
-        return toResponseDTO(noteService.createNote(dto));
+        return noteService.toResponseDTO(noteService.createNote(dto));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
     public NoteResponseDTO updateNote(@PathVariable Long id, @ModelAttribute NoteRequestDTO dto) {
-        return toResponseDTO(noteService.updateNote(id, dto));
+        return noteService.toResponseDTO(noteService.updateNote(id, dto));
     }
 
     @DeleteMapping("/{id}")
@@ -67,23 +172,9 @@ public class NoteController {
         return ResponseEntity.noContent().build();
     }
 
-    private NoteResponseDTO toResponseDTO(Note note) {
-        NoteResponseDTO dto = new NoteResponseDTO();
-        dto.setId(note.getId());
-        dto.setTitle(note.getTitle());
-        dto.setContent(note.getContent());
-        dto.setSubject(note.getSubject());
-        dto.setBranchName(note.getBranchName());
-        dto.setYear(note.getYear());
-        dto.setSemester(note.getSemester());
-        dto.setCreatedAt(note.getCreatedAt());
-        dto.setHasAttachment(note.hasAttachment());
-        dto.setAttachmentUrl(note.hasAttachment() ? "/api/files/download/" + note.getAttachmentFileId() : null);
-        return dto;
-    }
     @GetMapping("/attachment/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
-    public ResponseEntity<byte[]> downloadAttachment(@PathVariable Long id) {
+    public ResponseEntity<Resource> downloadAttachment(@PathVariable Long id) {
         try {
             Note note = noteService.getNoteById(id).orElse(null);
             if (note == null || !note.hasAttachment()) {
@@ -99,6 +190,7 @@ public class NoteController {
             if (file == null) {
                 return ResponseEntity.notFound().build();
             }
+            noteService.recordDownload(note);
 
             // Properly encode filename for Content-Disposition header
             String encodedFilename;
@@ -109,13 +201,23 @@ public class NoteController {
                 encodedFilename = file.getFileName().replace(" ", "%20");
             }
 
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename*=UTF-8''" + encodedFilename + "; filename=\"" + file.getFileName().replace("\"", "\\\"") + "\"")
-                    .header("Content-Type", file.getFileType())
-                    .header("Content-Length", String.valueOf(file.getFileSize()))
-                    .header("Cache-Control", "no-cache")
-                    .body(file.getFileData());
+            InputStream content = downloadBandwidthService.throttle(documentFileService.openContent(file),
+                    SecurityContextHolder.getContext().getAuthentication());
+            try {
+                return ResponseEntity.ok()
+                        .header("Content-Disposition", "attachment; filename*=UTF-8''" + encodedFilename + "; filename=\"" + file.getFileName().replace("\"", "\\\"") + "\"")
+                        .header("Content-Type", file.getFileType())
+                        .header("Content-Length", String.valueOf(file.getFileSize()))
+                        .header("Cache-Control", "no-cache")
+                        .body(new InputStreamResource(content));
+            } catch (RuntimeException e) {
+                // Releases the download slot and the content store handle
+                content.close();
+                throw e;
+            }
 
+        } catch (DownloadBandwidthService.TooManyDownloadsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
         } catch (Exception e) {
             logger.error("Error downloading attachment for note ID: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -1,8 +1,15 @@
 package com.ssid.collegeportal.controller;
 
-import com.ssid.collegeportal.model.Result;
+import com.ssid.collegeportal.dto.ResultResponseDTO;
+import com.ssid.collegeportal.repository.StudentRepository;
+import com.ssid.collegeportal.service.AttendanceExportService;
+import com.ssid.collegeportal.service.ResultExportService;
 import com.ssid.collegeportal.service.ResultService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,86 +18,105 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.DocumentException;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/export")
 public class PdfExportController {
+    private static final Logger logger = LoggerFactory.getLogger(PdfExportController.class);
+
     @Autowired
     private ResultService resultService;
     @Autowired
-    private com.ssid.collegeportal.service.AttendanceService attendanceService;
+    private StudentRepository studentRepository;
+    @Autowired
+    private AttendanceExportService attendanceExportService;
+    @Autowired
+    private ResultExportService resultExportService;
 
     @GetMapping("/results/{studentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and #studentId == principal.id)")
-    public ResponseEntity<byte[]> exportResultsPdf(@PathVariable Long studentId) {
-        List<Result> results = resultService.getResultsByStudentId(studentId);
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document();
-            PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new Paragraph("Results Report"));
-            document.add(new Paragraph("Student ID: " + studentId));
-            document.add(new Paragraph(" "));
-            PdfPTable table = new PdfPTable(3);
-            table.addCell("Subject");
-            table.addCell("Marks");
-            table.addCell("Result ID");
-            for (Result result : results) {
-                table.addCell(result.getSubject());
-                table.addCell(String.valueOf(result.getMarks()));
-                table.addCell(String.valueOf(result.getId()));
-            }
-            document.add(table);
-            document.close();
-            byte[] pdfBytes = out.toByteArray();
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=results_" + studentId + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(null);
+    public void exportResultsPdf(@PathVariable Long studentId, HttpServletResponse response) throws IOException {
+        if (!studentRepository.existsById(studentId)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Student not found");
+            return;
+        }
+        List<ResultResponseDTO> results = resultService.getTranscript(studentId);
+        startPdf(response, "results_" + studentId + ".pdf");
+        try {
+            resultExportService.writeResultsPdf(studentId, results, response.getOutputStream());
+            response.flushBuffer();
+        } catch (DocumentException e) {
+            failPdf(response, "results", studentId, e);
         }
     }
 
     @GetMapping("/attendance/{studentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and #studentId == principal.id)")
-    public ResponseEntity<byte[]> exportAttendancePdf(@PathVariable Long studentId) {
-        java.util.List<com.ssid.collegeportal.model.Attendance> attendanceList = attendanceService.getAttendanceByStudentId(studentId);
-        try (java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream()) {
-            com.itextpdf.text.Document document = new com.itextpdf.text.Document();
-            com.itextpdf.text.pdf.PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new com.itextpdf.text.Paragraph("Attendance Report"));
-            document.add(new com.itextpdf.text.Paragraph("Student ID: " + studentId));
-            document.add(new com.itextpdf.text.Paragraph(" "));
-            com.itextpdf.text.pdf.PdfPTable table = new com.itextpdf.text.pdf.PdfPTable(4);
-            table.addCell("Date");
-            table.addCell("Present");
-            table.addCell("Faculty Name");
-            table.addCell("Attendance ID");
-            for (com.ssid.collegeportal.model.Attendance att : attendanceList) {
-                table.addCell(att.getDate() != null ? att.getDate().toString() : "");
-                table.addCell(att.getPresent() != null ? (att.getPresent() ? "Yes" : "No") : "");
-                table.addCell(att.getFaculty() != null && att.getFaculty().getUser() != null ? att.getFaculty().getUser().getName() : "");
-                table.addCell(String.valueOf(att.getId()));
-            }
-            document.add(table);
-            document.close();
-            byte[] pdfBytes = out.toByteArray();
+    public void exportAttendancePdf(@PathVariable Long studentId, HttpServletResponse response) throws IOException {
+        if (!studentRepository.existsById(studentId)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Student not found");
+            return;
+        }
+        startPdf(response, "attendance_" + studentId + ".pdf");
+        try {
+            attendanceExportService.writeStudentPdf(studentId, response.getOutputStream());
+            response.flushBuffer();
+        } catch (DocumentException e) {
+            failPdf(response, "attendance", studentId, e);
+        }
+    }
+
+    private static void startPdf(HttpServletResponse response, String fileName) {
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+    }
+
+    // Once the first bytes are sent the status can no longer change; the broken download is all we can do
+    private static void failPdf(HttpServletResponse response, String report, Long studentId, DocumentException e) throws IOException {
+        logger.error("Could not generate {} PDF for student {}", report, studentId, e);
+        if (response.isCommitted()) {
+            throw new IOException("PDF generation failed after the response was committed", e);
+        }
+        response.reset();
+        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Could not generate PDF");
+    }
+
+    // Whole-branch attendance for one semester, streamed as CSV or as an XLSX sheet with one column per day
+    @GetMapping("/attendance/branch/{branchId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public ResponseEntity<StreamingResponseBody> exportBranchAttendance(
+            @PathVariable Long branchId,
+            @RequestParam int semester,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        if (!attendanceExportService.isValidRange(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String fileName = "attendance_branch_" + branchId + "_sem_" + semester + "_" + from + "_" + to;
+        if ("xlsx".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> attendanceExportService.writeXlsx(branchId, semester, from, to, out);
             return ResponseEntity.ok()
-                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=attendance_" + studentId + ".pdf")
-                    .contentType(org.springframework.http.MediaType.APPLICATION_PDF)
-                    .body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(null);
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName + ".xlsx")
+                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .body(body);
+        }
+        if (!"csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
         }
+        StreamingResponseBody body = out -> attendanceExportService.writeCsv(branchId, semester, from, to, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName + ".csv")
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
     }
 }
@@ -1,17 +1,32 @@
 package com.ssid.collegeportal.controller;
 
+import com.ssid.collegeportal.dto.GpaSummaryDTO;
+import com.ssid.collegeportal.dto.GpaTranscriptDTO;
 import com.ssid.collegeportal.dto.ResultRequestDTO;
 import com.ssid.collegeportal.dto.ResultResponseDTO;
-import com.ssid.collegeportal.model.Result;
+import com.ssid.collegeportal.dto.ResultRankDTO;
+import com.ssid.collegeportal.dto.ResultStatsDTO;
+import com.ssid.collegeportal.service.GpaService;
+import com.ssid.collegeportal.service.ResultAnalyticsService;
+import com.ssid.collegeportal.service.ResultRankService;
+import com.ssid.collegeportal.service.ResultUploadService;
 import com.ssid.collegeportal.service.ResultService;
 import com.ssid.collegeportal.repository.StudentRepository;
 import com.ssid.collegeportal.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.prepost.PreAuthorize;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,6 +35,14 @@ public class ResultController {
     @Autowired
     private ResultService resultService;
     @Autowired
+    private ResultAnalyticsService resultAnalyticsService;
+    @Autowired
+    private ResultRankService resultRankService;
+    @Autowired
+    private ResultUploadService resultUploadService;
+    @Autowired
+    private GpaService gpaService;
+    @Autowired
     private StudentRepository studentRepository;
     @Autowired
     private UserRepository userRepository;
@@ -41,41 +64,123 @@ public class ResultController {
         if (user.getRoles().stream().anyMatch(role -> role.getName().equals("STUDENT"))) {
             com.ssid.collegeportal.model.Student student = studentRepository.findByUserId(user.getId());
             if (student != null) {
-                return resultService.getResultsByStudentId(student.getId()).stream()
-                        .map(this::toResponseDTO).collect(Collectors.toList());
+                return resultService.getTranscript(student.getId());
             }
             return List.of();
         }
 
         // For admin/faculty, return all results
-        return resultService.getAllResults().stream().map(this::toResponseDTO).collect(Collectors.toList());
+        return resultService.getAllResults().stream().map(resultService::toResponseDTO).collect(Collectors.toList());
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and @resultController.isOwnResult(#id))")
     public ResponseEntity<ResultResponseDTO> getResultById(@PathVariable Long id) {
         return resultService.getResultById(id)
-                .map(r -> ResponseEntity.ok(toResponseDTO(r)))
+                .map(r -> ResponseEntity.ok(resultService.toResponseDTO(r)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and @resultController.isOwnStudentResult(#studentId))")
     public List<ResultResponseDTO> getResultsByStudent(@PathVariable Long studentId) {
-        return resultService.getResultsByStudentId(studentId).stream().map(this::toResponseDTO)
-                .collect(Collectors.toList());
+        return resultService.getTranscript(studentId);
+    }
+
+    // Mark distributions per subject; branchId narrows them to one branch
+    @GetMapping("/analytics")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public List<ResultStatsDTO> getResultAnalytics(@RequestParam(required = false) Long branchId) {
+        return resultAnalyticsService.getStats(branchId);
+    }
+
+    @GetMapping("/analytics/subject")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public ResponseEntity<ResultStatsDTO> getSubjectAnalytics(@RequestParam String subject,
+                                                              @RequestParam(required = false) Long branchId) {
+        return resultAnalyticsService.getSubjectStats(subject, branchId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Rank within branch and semester for each subject the student has a result in, plus overall
+    @GetMapping("/ranks/student/{studentId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and @resultController.isOwnStudentResult(#studentId))")
+    public List<ResultRankDTO> getStudentRanks(@PathVariable Long studentId) {
+        return resultRankService.getStudentRanks(studentId);
+    }
+
+    // Leaderboard for one subject, or overall when no subject is given
+    @GetMapping("/ranks/top")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY', 'STUDENT')")
+    public List<ResultRankDTO> getTopRanks(@RequestParam Long branchId,
+                                           @RequestParam int semester,
+                                           @RequestParam(required = false) String subject,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return resultRankService.getTop(branchId, semester, subject, Math.max(1, Math.min(limit, 100)));
+    }
+
+    // SGPA per semester and CGPA, with the grade and credits of every subject
+    @GetMapping("/gpa/student/{studentId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY') or (hasRole('STUDENT') and @resultController.isOwnStudentResult(#studentId))")
+    public GpaTranscriptDTO getGpaTranscript(@PathVariable Long studentId) {
+        return gpaService.getTranscript(studentId);
+    }
+
+    @GetMapping("/gpa/branch/{branchId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public List<GpaSummaryDTO> getBranchGpa(@PathVariable Long branchId) {
+        return gpaService.getBranchSummaries(branchId);
+    }
+
+    // Subject credits are read once; call after changing them
+    @PostMapping("/gpa/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> refreshGpa() {
+        gpaService.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> getTranscriptCacheStats() {
+        return Map.of("transcripts", resultService.getTranscriptCacheStats(),
+                "analytics", resultAnalyticsService.getCacheStats(),
+                "gpa", gpaService.getCacheStats());
     }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
     public ResultResponseDTO createResult(@Valid @RequestBody ResultRequestDTO dto) {
-        return toResponseDTO(resultService.createResult(dto));
+        return resultService.toResponseDTO(resultService.createResult(dto));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
     public ResultResponseDTO updateResult(@PathVariable Long id, @Valid @RequestBody ResultRequestDTO dto) {
-        return toResponseDTO(resultService.updateResult(id, dto));
+        return resultService.toResponseDTO(resultService.updateResult(id, dto));
+    }
+
+    // CSV with studentId, subject and marks columns; each subject is published atomically
+    @PostMapping("/upload")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public ResponseEntity<?> uploadResults(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(resultUploadService.upload(in));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/upload/reports/{reportId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FACULTY')")
+    public ResponseEntity<Resource> downloadUploadReport(@PathVariable String reportId) {
+        return resultUploadService.getReport(reportId)
+                .map(path -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=result-upload-errors-" + reportId + ".csv")
+                        .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                        .<Resource>body(new FileSystemResource(path)))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
@@ -106,16 +211,4 @@ public class ResultController {
         com.ssid.collegeportal.model.Student student = studentRepository.findByUserId(user.getId());
         return student != null && student.getId().equals(studentId);
     }
-
-    private ResultResponseDTO toResponseDTO(Result result) {
-        ResultResponseDTO dto = new ResultResponseDTO();
-        dto.setId(result.getId());
-        if (result.getStudent() != null) {
-            dto.setStudentId(result.getStudent().getId());
-            dto.setStudentName(result.getStudent().getUser().getName());
-        }
-        dto.setSubject(result.getSubject());
-        dto.setMarks(result.getMarks());
-        return dto;
-    }
 }
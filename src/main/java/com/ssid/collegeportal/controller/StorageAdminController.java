@@ -0,0 +1,56 @@
+package com.ssid.collegeportal.controller;
+
+import com.ssid.collegeportal.dto.OrphanCollectionReportDTO;
+import com.ssid.collegeportal.service.DocumentContentMigrationService;
+import com.ssid.collegeportal.service.OrphanedFileCollectorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/storage")
+public class StorageAdminController {
+
+    @Autowired
+    private OrphanedFileCollectorService orphanedFileCollectorService;
+
+    @Autowired
+    private DocumentContentMigrationService documentContentMigrationService;
+
+    @PostMapping("/gc")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> collectOrphans(@RequestParam(defaultValue = "true") boolean dryRun) {
+        try {
+            return ResponseEntity.ok(orphanedFileCollectorService.collect(dryRun));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/gc/last")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrphanCollectionReportDTO> getLastCollection() {
+        OrphanCollectionReportDTO report = orphanedFileCollectorService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/content-migration")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> getContentMigrationStatus() {
+        return documentContentMigrationService.getStatus();
+    }
+
+    @PostMapping("/content-migration/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runContentMigrationBatch() {
+        int migrated = documentContentMigrationService.runBatch();
+        if (migrated < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Content migration batch is already running");
+        }
+        return ResponseEntity.ok(Map.of("migrated", migrated));
+    }
+}
@@ -48,6 +48,14 @@ public class VideoSessionController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/{roomId}/leave")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('FACULTY')")
+    public ResponseEntity<VideoSessionResponse> leaveSession(@PathVariable String roomId) {
+        String userEmail = getCurrentUserEmail();
+        VideoSessionResponse response = videoSessionService.leaveSession(roomId, userEmail);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{roomId}")
     @PreAuthorize("hasRole('STUDENT') or hasRole('FACULTY')")
     public ResponseEntity<VideoSessionResponse> getSessionDetails(@PathVariable String roomId) {
@@ -81,9 +89,10 @@ public class VideoSessionController {
 
     @PostMapping("/{roomId}/end")
     @PreAuthorize("hasAnyRole('FACULTY','ADMIN')")
-    public ResponseEntity<VideoSessionResponse> endSession(@PathVariable String roomId) {
+    public ResponseEntity<VideoSessionResponse> endSession(@PathVariable String roomId,
+                                                           @RequestParam(defaultValue = "false") boolean recordAttendance) {
         String actorEmail = getCurrentUserEmail();
-        VideoSessionResponse response = videoSessionService.endSession(roomId, actorEmail);
+        VideoSessionResponse response = videoSessionService.endSession(roomId, actorEmail, recordAttendance);
         return ResponseEntity.ok(response);
     }
 
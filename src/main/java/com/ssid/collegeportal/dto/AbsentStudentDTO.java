@@ -0,0 +1,9 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class AbsentStudentDTO {
+    private Long studentId;
+    private String studentName;
+}
@@ -0,0 +1,18 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+public class AttendanceInsightDTO {
+    private Long studentId;
+    private LocalDate from;
+    private LocalDate to;
+    private int daysHeld; // Days with at least one class
+    private int daysPresent; // Days on which no class was missed
+    private double percentage;
+    private int currentStreak; // Consecutive class days present, ending at the latest one
+    private int longestStreak;
+    private Map<LocalDate, Boolean> calendar; // Class day -> present; only filled for heatmap requests
+}
@@ -0,0 +1,17 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+
+@Data
+public class AttendanceRollupRowDTO {
+    private Long studentId; // Set for per-student rows
+    private String studentName;
+    private Long branchId;
+    private String branchName;
+    private Integer semester;
+    private LocalDate date; // Set for per-day rows
+    private long total;
+    private long present;
+    private double percentage;
+}
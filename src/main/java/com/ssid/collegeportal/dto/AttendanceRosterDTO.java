@@ -0,0 +1,17 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class AttendanceRosterDTO {
+    private Long branchId;
+    private Integer year;
+    private Integer semester;
+    private Long facultyId;
+    private LocalDate date;
+    private String version; // Changes whenever a student or mark on the roster changes
+    private List<AttendanceRosterEntryDTO> students = new ArrayList<>();
+}
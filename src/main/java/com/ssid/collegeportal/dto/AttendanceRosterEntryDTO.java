@@ -0,0 +1,11 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class AttendanceRosterEntryDTO {
+    private Long studentId;
+    private String studentName;
+    private Long attendanceId; // Null when the student has not been marked yet
+    private Boolean present;
+}
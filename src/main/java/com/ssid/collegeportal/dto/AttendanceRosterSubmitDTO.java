@@ -0,0 +1,28 @@
+package com.ssid.collegeportal.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes to a roster fetched at {@code version}. Listed students are marked absent or present;
+ * everyone else keeps their existing mark, or is marked present if they have none yet.
+ */
+@Data
+public class AttendanceRosterSubmitDTO {
+    @NotNull
+    private Long branchId;
+    @NotNull
+    private Integer year;
+    @NotNull
+    private Integer semester;
+    private Long facultyId; // Taken from the signed-in faculty when omitted
+    private LocalDate date; // Today when omitted
+    @NotBlank
+    private String version;
+    private List<Long> absent = new ArrayList<>();
+    private List<Long> present = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+
+@Data
+public class AttendanceSummaryDTO {
+    private Long studentId;
+    private LocalDate from; // Null when the summary covers all records
+    private LocalDate to;
+    private long total;
+    private long present;
+    private long absent;
+    private double percentage; // Present / total * 100, 0 when there are no records
+}
@@ -0,0 +1,11 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class AttendanceUpsertResultDTO {
+    private int index; // Position of the row in the request
+    private String status; // INSERTED, UPDATED, UNCHANGED, DUPLICATE or REJECTED
+    private String message; // Reason when the row was not written
+    private AttendanceResponseDTO attendance; // Stored record, null for DUPLICATE and REJECTED rows
+}
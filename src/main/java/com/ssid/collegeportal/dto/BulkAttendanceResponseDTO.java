@@ -0,0 +1,14 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkAttendanceResponseDTO {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int rejected; // Includes rows superseded by a later row for the same student, faculty and date
+    private List<AttendanceUpsertResultDTO> rows = new ArrayList<>();
+}
@@ -18,4 +18,11 @@ public class CreateVideoSessionRequest {
     @Min(30)
     @Max(480) // 8 hours max
     private Integer durationMinutes;
+
+    // Optional cohort; needed to record attendance when the session ends
+    private Long branchId;
+
+    @Min(1)
+    @Max(8)
+    private Integer semester;
 }
\ No newline at end of file
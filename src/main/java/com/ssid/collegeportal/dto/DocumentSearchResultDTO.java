@@ -0,0 +1,14 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class DocumentSearchResultDTO {
+    private Long id;
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+    private String uploadedBy;
+    private String snippet; // Beginning of the extracted text
+    private double score; // BM25 relevance, higher is better
+}
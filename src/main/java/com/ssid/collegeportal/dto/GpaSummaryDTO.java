@@ -0,0 +1,14 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class GpaSummaryDTO {
+    private Long studentId;
+    private String studentName;
+    private int semester; // The student's current semester
+    private Double sgpa; // GPA of the current semester; null without results in it
+    private double cgpa;
+    private int credits;
+    private int earnedCredits;
+}
@@ -0,0 +1,14 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class GpaTranscriptDTO {
+    private Long studentId;
+    private List<SemesterGpaDTO> semesters = new ArrayList<>();
+    private int credits;
+    private int earnedCredits;
+    private double cgpa;
+}
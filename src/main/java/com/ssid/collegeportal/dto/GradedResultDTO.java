@@ -0,0 +1,12 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class GradedResultDTO {
+    private String subject;
+    private double marks;
+    private int credits;
+    private String grade;
+    private int gradePoints; // On the 10-point scale; 0 for a fail
+}
@@ -0,0 +1,19 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class NoteSearchResultDTO {
+    private Long id;
+    private String title;
+    private String subject;
+    private String branchName;
+    private Integer year;
+    private Integer semester;
+    private String attachmentUrl;
+    private boolean hasAttachment;
+    private LocalDateTime createdAt;
+    private String snippet; // Beginning of the note content
+    private double score; // BM25 relevance, higher is better
+}
@@ -0,0 +1,13 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class NoteTrendingDTO {
+    private Long id;
+    private String title;
+    private String subject;
+    private boolean hasAttachment;
+    private long views; // Estimated, includes counts not yet flushed
+    private long downloads;
+}
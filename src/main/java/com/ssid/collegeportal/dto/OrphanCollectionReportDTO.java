@@ -0,0 +1,24 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class OrphanCollectionReportDTO {
+    private boolean dryRun;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int orphanedUploadFiles; // Files in the uploads directory no event references
+    private long orphanedUploadBytes;
+    private int orphanedDocuments; // document_files rows no note references
+    private long orphanedDocumentBytes;
+    private int deletedUploadFiles;
+    private int deletedDocuments;
+    private long reclaimedBytes;
+    private boolean truncated; // Stopped at the per-run deletion limit
+    private List<String> sampleUploadFiles = new ArrayList<>();
+    private List<Long> sampleDocumentIds = new ArrayList<>();
+}
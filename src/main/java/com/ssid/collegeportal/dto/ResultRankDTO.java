@@ -0,0 +1,16 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class ResultRankDTO {
+    private Long studentId;
+    private String studentName;
+    private Long branchId;
+    private Integer semester;
+    private String subject; // OVERALL for the ranking on the average of all subjects
+    private double marks;
+    private int rank; // Students with equal marks share a rank
+    private int outOf;
+    private double percentile; // Share of the group scoring at or below these marks
+}
@@ -16,4 +16,9 @@ public class ResultRequestDTO {
     @DecimalMin(value = "0.0", message = "Marks must be at least 0")
     @DecimalMax(value = "100.0", message = "Marks must not exceed 100")
     private Double marks;
+
+    // Defaults to the student's current semester
+    @Min(value = 1, message = "Semester must be between 1 and 8")
+    @Max(value = 8, message = "Semester must be between 1 and 8")
+    private Integer semester;
 }
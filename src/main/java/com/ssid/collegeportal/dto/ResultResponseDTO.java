@@ -9,4 +9,5 @@ public class ResultResponseDTO {
     private String studentName;
     private String subject;
     private Double marks;
+    private Integer semester;
 }
@@ -0,0 +1,19 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+
+@Data
+public class ResultStatsDTO {
+    private String subject;
+    private Long branchId; // Null when the figures cover every branch
+    private int count;
+    private double mean;
+    private double median;
+    private double standardDeviation; // Population standard deviation
+    private double min;
+    private double max;
+    private double p25;
+    private double p75;
+    private double p90;
+    private int[] histogram; // Students per 10-mark band: [0,10), [10,20) ... [90,100]
+}
@@ -0,0 +1,16 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ResultUploadResponseDTO {
+    private int totalRows;
+    private int inserted;
+    private int updated;
+    private int rejected;
+    private List<String> publishedSubjects = new ArrayList<>();
+    private List<String> failedSubjects = new ArrayList<>(); // Rolled back as a whole
+    private String reportId; // Error report download id; null when every row was accepted
+}
@@ -0,0 +1,14 @@
+package com.ssid.collegeportal.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SemesterGpaDTO {
+    private int semester;
+    private List<GradedResultDTO> results = new ArrayList<>();
+    private int credits; // Credits attempted, including failed subjects
+    private int earnedCredits;
+    private double sgpa;
+}
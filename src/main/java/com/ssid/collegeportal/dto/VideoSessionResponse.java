@@ -15,7 +15,15 @@ public class VideoSessionResponse {
     private LocalDateTime scheduledTime;
     private LocalDateTime endTime;
     private String subject;
+    private Long branchId;
+    private Integer semester;
+    private LocalDateTime startedAt;
+    private LocalDateTime endedAt;
     private List<Long> participantIds;
     private SessionStatus status;
     private LocalDateTime createdAt;
+    private boolean attendanceRecorded;
+    // Filled in only by the end call that recorded attendance
+    private Integer attendancePresent;
+    private Integer attendanceAbsent;
 }
\ No newline at end of file
@@ -8,6 +8,11 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_student_faculty_date", columnNames = {"student_id", "faculty_id", "date"})
+}, indexes = {
+        @Index(name = "idx_attendance_student_date", columnList = "student_id, date")
+})
 public class Attendance {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,6 +20,7 @@ public class Attendance {
 
     private LocalDate date;
     private Boolean present;
+    private Integer semester; // Student's semester when the mark was taken
 
     @ManyToOne
     @JoinColumn(name = "student_id")
@@ -0,0 +1,29 @@
+package com.ssid.collegeportal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "attendance_branch_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_attendance_branch_daily_rollup", columnNames = {"branch_id", "date"}))
+public class AttendanceBranchDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private Long total = 0L; // Marks recorded for students of the branch that day
+
+    @Column(nullable = false)
+    private Long present = 0L;
+}
@@ -0,0 +1,32 @@
+package com.ssid.collegeportal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "attendance_student_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_attendance_student_rollup", columnNames = {"student_id", "semester"}),
+        indexes = @Index(name = "idx_attendance_student_rollup_branch", columnList = "branch_id, semester"))
+public class AttendanceStudentRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private Integer semester;
+
+    @Column(name = "branch_id")
+    private Long branchId;
+
+    @Column(nullable = false)
+    private Long total = 0L; // Classes marked
+
+    @Column(nullable = false)
+    private Long present = 0L; // Classes attended
+}
@@ -1,5 +1,6 @@
 package com.ssid.collegeportal.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -22,15 +23,28 @@ public class DocumentFile {
     @Column(nullable = false)
     private String fileType;
 
+    // Legacy in-database content; null once the file lives in the content store
     @Lob
-    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    @Column(columnDefinition = "LONGBLOB")
     private byte[] fileData;
 
+    @JsonIgnore
+    @Column(name = "storage_path", length = 512)
+    private String storagePath; // Location in the external content store
+
+    @Column(length = 64)
+    private String checksum; // SHA-256 of the content
+
     // Optional metadata
     private String uploaderName;
     private String description;
     private String uploadedBy; // User who uploaded the file
 
+    // What the file was uploaded for; null for standalone uploads
+    @Enumerated(EnumType.STRING)
+    @Column(name = "owner_type", length = 20)
+    private DocumentOwnerType ownerType;
+
     @Column(name = "uploaded_at", nullable = false)
     private LocalDateTime uploadedAt;
 
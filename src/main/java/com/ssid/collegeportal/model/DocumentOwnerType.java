@@ -0,0 +1,5 @@
+package com.ssid.collegeportal.model;
+
+public enum DocumentOwnerType {
+    NOTE
+}
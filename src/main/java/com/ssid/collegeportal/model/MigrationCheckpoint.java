@@ -0,0 +1,22 @@
+package com.ssid.collegeportal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "migration_checkpoints")
+public class MigrationCheckpoint {
+    @Id
+    @Column(length = 100)
+    private String name; // Job the checkpoint belongs to
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId = 0L; // Highest row ID the job has finished with
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "notes")
+@Table(name = "notes", indexes = {
+        @Index(name = "idx_notes_cohort", columnList = "branch_name, year, semester, created_at")
+})
 public class Note {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,39 @@
+package com.ssid.collegeportal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "note_access_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_note_access_day", columnNames = {"stat_date", "note_id"}),
+        indexes = @Index(name = "idx_note_access_cohort", columnList = "branch_name, year, semester, stat_date"))
+public class NoteAccessStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "note_id", nullable = false)
+    private Long noteId;
+
+    @Column(name = "branch_name", nullable = false)
+    private String branchName;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Column(nullable = false)
+    private Integer semester;
+
+    @Column(nullable = false)
+    private Long views = 0L; // Note opened
+
+    @Column(nullable = false)
+    private Long downloads = 0L; // Attachment downloaded
+}
@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_notification_user_type_created", columnList = "user_id, type, created_at"))
 public class Notification {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -7,6 +7,11 @@ import lombok.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_result_student_subject", columnList = "student_id, subject"),
+        @Index(name = "idx_result_subject", columnList = "subject"),
+        @Index(name = "idx_result_student_semester", columnList = "student_id, semester")
+})
 public class Result {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,6 +20,9 @@ public class Result {
     private String subject;
     private Double marks;
 
+    // Semester the result was earned in; set from the student's semester at the time
+    private Integer semester;
+
     @ManyToOne
     @JoinColumn(name = "student_id")
     private Student student;
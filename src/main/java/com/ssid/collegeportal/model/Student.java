@@ -7,6 +7,7 @@ import lombok.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_student_cohort", columnList = "branch_id, year, semester"))
 public class Student {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,6 +14,9 @@ public class Subject {
 
     private String name;
 
+    // Weight of the subject in GPA calculations; null falls back to the configured default
+    private Integer credits;
+
     @ManyToOne
     @JoinColumn(name = "faculty_id")
     private Faculty faculty;
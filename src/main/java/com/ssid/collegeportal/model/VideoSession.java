@@ -35,6 +35,23 @@ public class VideoSession {
     @Column
     private String subject;
 
+    // Cohort the class is held for; attendance can only be recorded when both are set
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "branch_id")
+    private Branch branch;
+
+    @Column
+    private Integer semester;
+
+    @Column
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime endedAt;
+
+    @Column(nullable = false)
+    private boolean attendanceRecorded = false;
+
     @ElementCollection
     @CollectionTable(name = "video_session_participants",
             joinColumns = @JoinColumn(name = "video_session_id"))
@@ -0,0 +1,42 @@
+package com.ssid.collegeportal.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time one user spent in a video session. Reconnects add to the same row: {@code activeSince}
+ * is set while the user is in the room and folded into {@code secondsPresent} when they leave.
+ */
+@Entity
+@Table(name = "video_session_participation",
+        uniqueConstraints = @UniqueConstraint(name = "uk_video_session_participation", columnNames = {"video_session_id", "user_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VideoSessionParticipation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "video_session_id", nullable = false)
+    private Long videoSessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime firstJoinedAt;
+
+    @Column
+    private LocalDateTime activeSince;
+
+    @Column
+    private LocalDateTime lastLeftAt;
+
+    @Column(nullable = false)
+    private long secondsPresent = 0;
+}
@@ -0,0 +1,26 @@
+package com.ssid.collegeportal.repository;
+
+import com.ssid.collegeportal.model.AttendanceBranchDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AttendanceBranchDailyRollupRepository extends JpaRepository<AttendanceBranchDailyRollup, Long> {
+
+    interface BranchAttendanceRow {
+        Long getBranchId();
+        String getBranchName();
+        Long getTotal();
+        Long getPresent();
+    }
+
+    List<AttendanceBranchDailyRollup> findByBranchIdAndDateBetweenOrderByDateAsc(Long branchId, LocalDate from, LocalDate to);
+
+    @Query("SELECT r.branchId AS branchId, b.name AS branchName, SUM(r.total) AS total, SUM(r.present) AS present " +
+           "FROM AttendanceBranchDailyRollup r LEFT JOIN Branch b ON b.id = r.branchId " +
+           "WHERE r.date BETWEEN :from AND :to GROUP BY r.branchId, b.name ORDER BY b.name")
+    List<BranchAttendanceRow> summarizeBranches(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,7 +1,84 @@
 package com.ssid.collegeportal.repository;
 
 import com.ssid.collegeportal.model.Attendance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
-}
\ No newline at end of file
+
+    interface AttendanceKey {
+        Long getId();
+        Long getStudentId();
+        Long getFacultyId();
+        LocalDate getDate();
+        Boolean getPresent();
+        Integer getSemester();
+    }
+
+    interface RosterRow {
+        Long getStudentId();
+        String getStudentName();
+        Long getAttendanceId();
+        Boolean getPresent();
+    }
+
+    interface AttendanceSummary {
+        Long getTotal();
+        Long getPresent();
+        Double getPercentage();
+    }
+
+    // Locking read: sees the latest committed row even after the transaction's snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Attendance a WHERE a.id = :id")
+    Optional<Attendance> findByIdForUpdate(@Param("id") Long id);
+
+    // Served by idx_attendance_student_date; the graph loads student and faculty names in the same query
+    @EntityGraph(attributePaths = {"student.user", "faculty.user"})
+    List<Attendance> findByStudentIdOrderByDateAsc(Long studentId);
+
+    @EntityGraph(attributePaths = {"student.user", "faculty.user"})
+    List<Attendance> findByStudentIdAndDateBetweenOrderByDateAsc(Long studentId, LocalDate from, LocalDate to);
+
+    // Existing rows a bulk submission may collide with; candidates only, callers match the exact key
+    @Query("SELECT a.id AS id, a.student.id AS studentId, a.faculty.id AS facultyId, a.date AS date, a.present AS present, " +
+           "a.semester AS semester " +
+           "FROM Attendance a WHERE a.student.id IN :studentIds AND a.date IN :dates")
+    List<AttendanceKey> findKeysByStudentIdInAndDateIn(@Param("studentIds") Collection<Long> studentIds,
+                                                       @Param("dates") Collection<LocalDate> dates);
+
+    @Query("SELECT COUNT(a) AS total, " +
+           "COALESCE(SUM(CASE WHEN a.present = true THEN 1 ELSE 0 END), 0) AS present, " +
+           "COALESCE(100.0 * SUM(CASE WHEN a.present = true THEN 1 ELSE 0 END) / COUNT(a), 0.0) AS percentage " +
+           "FROM Attendance a WHERE a.student.id = :studentId")
+    AttendanceSummary summarizeByStudentId(@Param("studentId") Long studentId);
+
+    @Query("SELECT COUNT(a) AS total, " +
+           "COALESCE(SUM(CASE WHEN a.present = true THEN 1 ELSE 0 END), 0) AS present, " +
+           "COALESCE(100.0 * SUM(CASE WHEN a.present = true THEN 1 ELSE 0 END) / COUNT(a), 0.0) AS percentage " +
+           "FROM Attendance a WHERE a.student.id = :studentId AND a.date BETWEEN :from AND :to")
+    AttendanceSummary summarizeByStudentIdAndDateBetween(@Param("studentId") Long studentId,
+                                                         @Param("from") LocalDate from,
+                                                         @Param("to") LocalDate to);
+
+    // Every student of the cohort with the given faculty's mark for the day, if any
+    @Query("SELECT s.id AS studentId, u.name AS studentName, a.id AS attendanceId, a.present AS present " +
+           "FROM Student s LEFT JOIN s.user u " +
+           "LEFT JOIN Attendance a ON a.student = s AND a.faculty.id = :facultyId AND a.date = :date " +
+           "WHERE s.branch.id = :branchId AND s.year = :year AND s.semester = :semester " +
+           "ORDER BY u.name, s.id")
+    List<RosterRow> findRoster(@Param("branchId") Long branchId,
+                               @Param("year") int year,
+                               @Param("semester") int semester,
+                               @Param("facultyId") Long facultyId,
+                               @Param("date") LocalDate date);
+}
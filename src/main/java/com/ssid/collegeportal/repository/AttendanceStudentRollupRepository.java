@@ -0,0 +1,33 @@
+package com.ssid.collegeportal.repository;
+
+import com.ssid.collegeportal.model.AttendanceStudentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AttendanceStudentRollupRepository extends JpaRepository<AttendanceStudentRollup, Long> {
+
+    interface StudentAttendanceRow {
+        Long getStudentId();
+        String getStudentName();
+        String getBranchName();
+        Integer getSemester();
+        Long getTotal();
+        Long getPresent();
+    }
+
+    // Null filters match everything; belowPercent keeps students under the given attendance percentage
+    @Query("SELECT r.studentId AS studentId, u.name AS studentName, b.name AS branchName, r.semester AS semester, " +
+           "r.total AS total, r.present AS present " +
+           "FROM AttendanceStudentRollup r JOIN Student s ON s.id = r.studentId LEFT JOIN s.user u LEFT JOIN Branch b ON b.id = r.branchId " +
+           "WHERE (:branchId IS NULL OR r.branchId = :branchId) AND (:semester IS NULL OR r.semester = :semester) " +
+           "AND (:belowPercent IS NULL OR r.present * 100.0 < :belowPercent * r.total) " +
+           "ORDER BY r.present * 1.0 / r.total ASC, r.studentId ASC")
+    List<StudentAttendanceRow> findStudentRows(@Param("branchId") Long branchId,
+                                               @Param("semester") Integer semester,
+                                               @Param("belowPercent") Double belowPercent);
+
+    List<AttendanceStudentRollup> findByStudentIdOrderBySemesterAsc(Long studentId);
+}
@@ -1,10 +1,16 @@
 package com.ssid.collegeportal.repository;
 
 import com.ssid.collegeportal.model.DocumentFile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DocumentFileRepository extends JpaRepository<DocumentFile, Long> {
@@ -14,4 +20,56 @@ public interface DocumentFileRepository extends JpaRepository<DocumentFile, Long
     List<DocumentFile> findByFileType(String fileType);
 
     List<DocumentFile> findByFileNameContainingIgnoreCase(String fileName);
+
+    @Query("SELECT d.id FROM DocumentFile d")
+    List<Long> findAllIds();
+
+    @Query("SELECT d.storagePath FROM DocumentFile d WHERE d.id = :id")
+    Optional<String> findStoragePathById(@Param("id") Long id);
+
+    interface IndexedFileSummary {
+        Long getId();
+
+        String getFileName();
+
+        String getFileType();
+
+        Long getFileSize();
+
+        String getUploadedBy();
+
+        String getDescription();
+
+        String getStoragePath();
+    }
+
+    /**
+     * Everything the search index needs of the documents except their content, so that
+     * rebuilding it does not load the BLOB column.
+     */
+    @Query("SELECT d.id AS id, d.fileName AS fileName, d.fileType AS fileType, d.fileSize AS fileSize, " +
+           "d.uploadedBy AS uploadedBy, d.description AS description, d.storagePath AS storagePath " +
+           "FROM DocumentFile d WHERE d.id IN :ids ORDER BY d.id")
+    List<IndexedFileSummary> findIndexedSummaries(@Param("ids") Collection<Long> ids);
+
+    interface StoredFileSummary {
+        Long getId();
+
+        String getFileName();
+
+        Long getFileSize();
+    }
+
+    /**
+     * Files uploaded as note attachments that no note references any more, uploaded before the
+     * cutoff. Keyset-paged on id.
+     */
+    @Query("SELECT d.id AS id, d.fileName AS fileName, d.fileSize AS fileSize FROM DocumentFile d " +
+           "WHERE d.ownerType = com.ssid.collegeportal.model.DocumentOwnerType.NOTE " +
+           "AND d.id > :afterId AND d.uploadedAt < :cutoff " +
+           "AND NOT EXISTS (SELECT n.id FROM Note n WHERE n.attachmentFile = d) " +
+           "ORDER BY d.id")
+    List<StoredFileSummary> findOrphanedNoteAttachments(@Param("afterId") Long afterId,
+                                                        @Param("cutoff") LocalDateTime cutoff,
+                                                        Pageable pageable);
 }
@@ -2,6 +2,13 @@ package com.ssid.collegeportal.repository;
 
 import com.ssid.collegeportal.model.Event;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
+    boolean existsByAttachmentPath(String attachmentPath);
+
+    @Query("SELECT e.attachmentPath FROM Event e WHERE e.attachmentPath IS NOT NULL")
+    List<String> findAllAttachmentPaths();
 }
\ No newline at end of file
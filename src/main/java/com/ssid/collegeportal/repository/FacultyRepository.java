@@ -3,5 +3,10 @@ package com.ssid.collegeportal.repository;
 import com.ssid.collegeportal.model.Faculty;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
+    Optional<Faculty> findByUserId(Long userId);
+
+    Optional<Faculty> findByUserEmail(String email);
 }
\ No newline at end of file
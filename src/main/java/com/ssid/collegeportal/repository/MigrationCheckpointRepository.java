@@ -0,0 +1,7 @@
+package com.ssid.collegeportal.repository;
+
+import com.ssid.collegeportal.model.MigrationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MigrationCheckpointRepository extends JpaRepository<MigrationCheckpoint, String> {
+}
@@ -0,0 +1,33 @@
+package com.ssid.collegeportal.repository;
+
+import com.ssid.collegeportal.model.NoteAccessStat;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface NoteAccessStatRepository extends JpaRepository<NoteAccessStat, Long> {
+
+    interface NoteAccessTotals {
+        Long getNoteId();
+        Long getViews();
+        Long getDownloads();
+    }
+
+    @Query("SELECT s.noteId AS noteId, SUM(s.views) AS views, SUM(s.downloads) AS downloads " +
+           "FROM NoteAccessStat s WHERE s.branchName = :branchName AND s.year = :year AND s.semester = :semester " +
+           "AND s.statDate >= :since GROUP BY s.noteId ORDER BY SUM(s.views) + SUM(s.downloads) DESC")
+    List<NoteAccessTotals> findCohortTotalsSince(@Param("branchName") String branchName,
+                                                 @Param("year") Integer year,
+                                                 @Param("semester") Integer semester,
+                                                 @Param("since") LocalDate since,
+                                                 Pageable pageable);
+
+    @Query("SELECT s.noteId AS noteId, SUM(s.views) AS views, SUM(s.downloads) AS downloads " +
+           "FROM NoteAccessStat s WHERE s.statDate >= :since " +
+           "GROUP BY s.noteId ORDER BY SUM(s.views) + SUM(s.downloads) DESC")
+    List<NoteAccessTotals> findTotalsSince(@Param("since") LocalDate since, Pageable pageable);
+}
@@ -1,7 +1,16 @@
 package com.ssid.collegeportal.repository;
 
 import com.ssid.collegeportal.model.Note;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface NoteRepository extends JpaRepository<Note, Long> {
+    // Both served by idx_notes_cohort (branch_name, year, semester, created_at)
+    List<Note> findByBranchNameAndYearAndSemester(String branchName, Integer year, Integer semester, Sort sort);
+
+    Page<Note> findByBranchNameAndYearAndSemester(String branchName, Integer year, Integer semester, Pageable pageable);
 }
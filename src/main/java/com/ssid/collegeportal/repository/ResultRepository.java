@@ -1,7 +1,16 @@
 package com.ssid.collegeportal.repository;
 
 import com.ssid.collegeportal.model.Result;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface ResultRepository extends JpaRepository<Result, Long> {
-}
\ No newline at end of file
+    // Served by idx_result_student_subject; the graph loads the student's name in the same query
+    @EntityGraph(attributePaths = {"student.user"})
+    List<Result> findByStudentIdOrderBySubjectAsc(Long studentId);
+
+    @EntityGraph(attributePaths = {"student.user"})
+    List<Result> findAllByOrderByIdAsc();
+}
@@ -3,6 +3,8 @@ package com.ssid.collegeportal.repository;
 import com.ssid.collegeportal.model.Student;
 import com.ssid.collegeportal.model.Branch;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -14,4 +16,13 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     List<Student> findByBranch(Branch branch);
 
     List<Student> findByBranchId(Long branchId);
+
+    interface RosterEntry {
+        Long getStudentId();
+        Long getUserId();
+    }
+
+    // Ids only, so a class roster does not load every student's user and branch
+    @Query("SELECT s.id AS studentId, s.user.id AS userId FROM Student s WHERE s.branch.id = :branchId AND s.semester = :semester")
+    List<RosterEntry> findRoster(@Param("branchId") Long branchId, @Param("semester") int semester);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.ssid.collegeportal.repository;
+
+import com.ssid.collegeportal.model.VideoSessionParticipation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface VideoSessionParticipationRepository extends JpaRepository<VideoSessionParticipation, Long> {
+    Optional<VideoSessionParticipation> findByVideoSessionIdAndUserId(Long videoSessionId, Long userId);
+
+    List<VideoSessionParticipation> findByVideoSessionId(Long videoSessionId);
+}
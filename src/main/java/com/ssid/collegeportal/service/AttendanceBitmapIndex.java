@@ -0,0 +1,409 @@
+package com.ssid.collegeportal.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Day-level attendance of every student held as two bitsets: days with at least one class and
+ * days with at least one absence. Bit {@code n} of a student's arrays is epoch day
+ * {@code firstWord * 64 + n}, so a year of attendance costs a dozen longs per student.
+ *
+ * Percentages, streaks, calendars and branch absentee lists are answered from memory. The
+ * bitsets are loaded once at startup and every committed attendance write re-reads the
+ * affected student-days on a background thread.
+ */
+@Service
+public class AttendanceBitmapIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceBitmapIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final Map<Long, StudentDays> students = new HashMap<>();
+    private final Map<Long, Long> studentBranches = new HashMap<>();
+    private final Map<Long, String> studentNames = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attendance-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean ready;
+
+    @Autowired
+    public AttendanceBitmapIndex(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL Connector/J streams rows one at a time instead of buffering the whole table
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    private static class StudentDays {
+        private int firstWord;
+        private long[] held = new long[0];
+        private long[] absent = new long[0];
+
+        void set(long epochDay, boolean isHeld, boolean isAbsent) {
+            int word = (int) (epochDay >> 6);
+            if (!isHeld && (word < firstWord || word >= firstWord + held.length)) {
+                return;
+            }
+            ensure(word);
+            int index = word - firstWord;
+            long bit = 1L << (epochDay & 63);
+            held[index] = isHeld ? held[index] | bit : held[index] & ~bit;
+            absent[index] = isHeld && isAbsent ? absent[index] | bit : absent[index] & ~bit;
+        }
+
+        boolean isHeld(long epochDay) {
+            return bit(held, epochDay);
+        }
+
+        boolean isAbsent(long epochDay) {
+            return bit(absent, epochDay);
+        }
+
+        private boolean bit(long[] words, long epochDay) {
+            int index = (int) (epochDay >> 6) - firstWord;
+            return index >= 0 && index < words.length && (words[index] & (1L << (epochDay & 63))) != 0;
+        }
+
+        private void ensure(int word) {
+            if (held.length == 0) {
+                firstWord = word;
+                held = new long[1];
+                absent = new long[1];
+                return;
+            }
+            if (word < firstWord) {
+                int shift = firstWord - word;
+                held = prepend(held, shift);
+                absent = prepend(absent, shift);
+                firstWord = word;
+            } else if (word >= firstWord + held.length) {
+                int length = Math.max(word - firstWord + 1, held.length + held.length / 2);
+                held = Arrays.copyOf(held, length);
+                absent = Arrays.copyOf(absent, length);
+            }
+        }
+
+        private static long[] prepend(long[] words, int count) {
+            long[] grown = new long[words.length + count];
+            System.arraycopy(words, 0, grown, count, words.length);
+            return grown;
+        }
+    }
+
+    public static class Summary {
+        private final int daysHeld;
+        private final int daysPresent;
+        private final int currentStreak;
+        private final int longestStreak;
+
+        Summary(int daysHeld, int daysPresent, int currentStreak, int longestStreak) {
+            this.daysHeld = daysHeld;
+            this.daysPresent = daysPresent;
+            this.currentStreak = currentStreak;
+            this.longestStreak = longestStreak;
+        }
+
+        public int getDaysHeld() {
+            return daysHeld;
+        }
+
+        public int getDaysPresent() {
+            return daysPresent;
+        }
+
+        public int getCurrentStreak() {
+            return currentStreak;
+        }
+
+        public int getLongestStreak() {
+            return longestStreak;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        refresher.execute(() -> {
+            try {
+                build();
+            } catch (Exception e) {
+                logger.error("Attendance index build failed; attendance insights stay unavailable", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdown();
+        try {
+            refresher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Schedules the given student-days to be re-read once the current transaction commits.
+     */
+    public void refreshAfterCommit(Collection<AttendanceRollupService.Change> changes) {
+        Map<Long, Set<LocalDate>> days = new HashMap<>();
+        for (AttendanceRollupService.Change change : changes) {
+            if (change.getDate() != null) {
+                days.computeIfAbsent(change.getStudentId(), id -> new HashSet<>()).add(change.getDate());
+            }
+        }
+        if (days.isEmpty()) {
+            return;
+        }
+        Runnable task = () -> refresher.execute(() -> {
+            try {
+                refresh(days);
+            } catch (Exception e) {
+                logger.error("Attendance index refresh failed for {} students", days.size(), e);
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Day-level counts and streaks for one student between {@code from} and {@code to} inclusive.
+     * A day counts as present when the student missed none of that day's classes; streaks run
+     * over class days only, so weekends and holidays do not break them.
+     */
+    public Summary summarize(long studentId, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            StudentDays days = students.get(studentId);
+            if (days == null || days.held.length == 0) {
+                return new Summary(0, 0, 0, 0);
+            }
+            long start = Math.max(from.toEpochDay(), (long) days.firstWord << 6);
+            long end = Math.min(to.toEpochDay(), ((long) (days.firstWord + days.held.length) << 6) - 1);
+            int held = 0;
+            int present = 0;
+            int run = 0;
+            int longest = 0;
+            for (long day = start; day <= end; ) {
+                int index = (int) (day >> 6) - days.firstWord;
+                long mask = rangeMask(day, end);
+                long heldWord = days.held[index] & mask;
+                long presentWord = heldWord & ~days.absent[index];
+                held += Long.bitCount(heldWord);
+                present += Long.bitCount(presentWord);
+                // Walk the class days of this word in order to extend or break the running streak
+                while (heldWord != 0) {
+                    long lowest = heldWord & -heldWord;
+                    if ((presentWord & lowest) != 0) {
+                        run++;
+                        longest = Math.max(longest, run);
+                    } else {
+                        run = 0;
+                    }
+                    heldWord &= heldWord - 1;
+                }
+                day = ((day >> 6) + 1) << 6;
+            }
+            return new Summary(held, present, run, longest);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Class days between {@code from} and {@code to}, mapped to whether the student was present.
+     */
+    public Map<LocalDate, Boolean> calendar(long studentId, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            Map<LocalDate, Boolean> calendar = new TreeMap<>();
+            StudentDays days = students.get(studentId);
+            if (days == null) {
+                return calendar;
+            }
+            for (long day = from.toEpochDay(); day <= to.toEpochDay(); day++) {
+                if (days.isHeld(day)) {
+                    calendar.put(LocalDate.ofEpochDay(day), !days.isAbsent(day));
+                }
+            }
+            return calendar;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Students of the branch who missed at least one class on {@code date}, with their names.
+     */
+    public Map<Long, String> absentees(long branchId, LocalDate date) {
+        long day = date.toEpochDay();
+        lock.readLock().lock();
+        try {
+            Map<Long, String> absent = new TreeMap<>();
+            for (Map.Entry<Long, Long> entry : studentBranches.entrySet()) {
+                if (entry.getValue() != branchId) {
+                    continue;
+                }
+                StudentDays days = students.get(entry.getKey());
+                if (days != null && days.isHeld(day) && days.isAbsent(day)) {
+                    absent.put(entry.getKey(), studentNames.get(entry.getKey()));
+                }
+            }
+            return absent;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long rangeMask(long day, long end) {
+        long mask = -1L << (day & 63);
+        if ((end >> 6) == (day >> 6)) {
+            mask &= -1L >>> (63 - (end & 63));
+        }
+        return mask;
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        Map<Long, StudentDays> built = new HashMap<>();
+        Map<Long, Long> branches = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        streamingJdbcTemplate.query(
+                "SELECT s.id, s.branch_id, u.name FROM student s LEFT JOIN users u ON u.id = s.user_id",
+                rs -> {
+                    long studentId = rs.getLong(1);
+                    long branchId = rs.getLong(2);
+                    if (!rs.wasNull()) {
+                        branches.put(studentId, branchId);
+                    }
+                    names.put(studentId, rs.getString(3));
+                });
+        // One row per student-day; the day is an absence if any class that day was missed
+        long[] rows = new long[1];
+        streamingJdbcTemplate.query(
+                "SELECT student_id, date, MIN(CASE WHEN present THEN 1 ELSE 0 END) FROM attendance " +
+                "WHERE student_id IS NOT NULL AND date IS NOT NULL GROUP BY student_id, date",
+                rs -> {
+                    long studentId = rs.getLong(1);
+                    LocalDate date = rs.getDate(2).toLocalDate();
+                    built.computeIfAbsent(studentId, id -> new StudentDays())
+                            .set(date.toEpochDay(), true, rs.getInt(3) == 0);
+                    rows[0]++;
+                });
+
+        lock.writeLock().lock();
+        try {
+            students.clear();
+            students.putAll(built);
+            studentBranches.clear();
+            studentBranches.putAll(branches);
+            studentNames.clear();
+            studentNames.putAll(names);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        logger.info("Attendance index built: {} students, {} student-days in {} ms",
+                built.size(), rows[0], System.currentTimeMillis() - start);
+    }
+
+    private void refresh(Map<Long, Set<LocalDate>> days) {
+        Set<LocalDate> allDates = days.values().stream().flatMap(Set::stream).collect(Collectors.toSet());
+        String studentPlaceholders = placeholders(days.size());
+        String datePlaceholders = placeholders(allDates.size());
+        List<Object> args = new ArrayList<>(days.keySet());
+        allDates.forEach(date -> args.add(Date.valueOf(date)));
+
+        Map<Long, Map<Long, Boolean>> absentByStudentDay = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT student_id, date, MIN(CASE WHEN present THEN 1 ELSE 0 END) FROM attendance " +
+                "WHERE student_id IN (" + studentPlaceholders + ") AND date IN (" + datePlaceholders + ") " +
+                "GROUP BY student_id, date",
+                rs -> {
+                    absentByStudentDay.computeIfAbsent(rs.getLong(1), id -> new HashMap<>())
+                            .put(rs.getDate(2).toLocalDate().toEpochDay(), rs.getInt(3) == 0);
+                },
+                args.toArray());
+        Map<Long, Object[]> studentInfo = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT s.id, s.branch_id, u.name FROM student s LEFT JOIN users u ON u.id = s.user_id " +
+                "WHERE s.id IN (" + studentPlaceholders + ")",
+                rs -> {
+                    long branchId = rs.getLong(2);
+                    studentInfo.put(rs.getLong(1), new Object[]{rs.wasNull() ? null : branchId, rs.getString(3)});
+                },
+                days.keySet().toArray());
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Set<LocalDate>> entry : days.entrySet()) {
+                Long studentId = entry.getKey();
+                Map<Long, Boolean> stored = absentByStudentDay.getOrDefault(studentId, Map.of());
+                StudentDays studentDays = students.computeIfAbsent(studentId, id -> new StudentDays());
+                for (LocalDate date : entry.getValue()) {
+                    long day = date.toEpochDay();
+                    Boolean absent = stored.get(day);
+                    studentDays.set(day, absent != null, Boolean.TRUE.equals(absent));
+                }
+                Object[] info = studentInfo.get(studentId);
+                if (info != null) {
+                    if (info[0] != null) {
+                        studentBranches.put(studentId, (Long) info[0]);
+                    } else {
+                        studentBranches.remove(studentId);
+                    }
+                    studentNames.put(studentId, (String) info[1]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,348 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.AttendanceRequestDTO;
+import com.ssid.collegeportal.dto.AttendanceResponseDTO;
+import com.ssid.collegeportal.dto.AttendanceUpsertResultDTO;
+import com.ssid.collegeportal.dto.BulkAttendanceResponseDTO;
+import com.ssid.collegeportal.model.Faculty;
+import com.ssid.collegeportal.model.Student;
+import com.ssid.collegeportal.repository.AttendanceRepository;
+import com.ssid.collegeportal.repository.FacultyRepository;
+import com.ssid.collegeportal.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes many attendance marks at once.
+ *
+ * Students and faculty referenced by the batch are loaded with one IN query each, the rows the
+ * batch may collide with are read once, and all writes go out as a single JDBC batch upsert on
+ * the (student, faculty, date) key inside one transaction, together with the matching rollup
+ * deltas. Re-submitting the same register therefore updates rows instead of duplicating them.
+ *
+ * The rollup deltas depend on whether a row already existed, so the batch first locks its
+ * students' rows and then reads the colliding attendance rows with a locking read. Concurrent
+ * batches for the same students (check-in flushes, roster submissions, video sessions) queue
+ * behind each other instead of both counting the same row as new.
+ */
+@Service
+public class AttendanceBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceBulkService.class);
+
+    public static final String INSERTED = "INSERTED";
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String REJECTED = "REJECTED";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO attendance (student_id, faculty_id, date, present, semester) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE present = VALUES(present)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private FacultyRepository facultyRepository;
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+
+    @Value("${app.attendance.bulk.max-rows:5000}")
+    private int maxRows;
+
+    @Value("${app.attendance.bulk.batch-size:500}")
+    private int batchSize;
+
+    private static class Key {
+        private final long studentId;
+        private final long facultyId;
+        private final LocalDate date;
+
+        Key(long studentId, long facultyId, LocalDate date) {
+            this.studentId = studentId;
+            this.facultyId = facultyId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return studentId == other.studentId && facultyId == other.facultyId && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(studentId, facultyId, date);
+        }
+    }
+
+    @Transactional
+    public BulkAttendanceResponseDTO upsert(List<AttendanceRequestDTO> rows) {
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("At most " + maxRows + " attendance rows can be submitted at once");
+        }
+        BulkAttendanceResponseDTO response = new BulkAttendanceResponseDTO();
+        AttendanceUpsertResultDTO[] results = new AttendanceUpsertResultDTO[rows.size()];
+
+        Set<Long> studentIds = new HashSet<>();
+        Set<Long> facultyIds = new HashSet<>();
+        for (AttendanceRequestDTO row : rows) {
+            if (row != null && row.getStudentId() != null) {
+                studentIds.add(row.getStudentId());
+            }
+            if (row != null && row.getFacultyId() != null) {
+                facultyIds.add(row.getFacultyId());
+            }
+        }
+        Map<Long, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        Map<Long, Faculty> faculty = facultyRepository.findAllById(facultyIds).stream()
+                .collect(Collectors.toMap(Faculty::getId, Function.identity()));
+
+        // Validate, and let the last row for a key win when a register lists a student twice
+        Map<Key, Integer> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            AttendanceRequestDTO row = rows.get(i);
+            String problem = validate(row, students, faculty);
+            if (problem != null) {
+                results[i] = result(i, REJECTED, problem, null);
+                continue;
+            }
+            Integer earlier = accepted.put(new Key(row.getStudentId(), row.getFacultyId(), row.getDate()), i);
+            if (earlier != null) {
+                results[earlier] = result(earlier, DUPLICATE, "Superseded by row " + i, null);
+            }
+        }
+
+        Map<Key, AttendanceRepository.AttendanceKey> existing = lockExisting(accepted.keySet());
+        List<Object[]> writes = new ArrayList<>();
+        List<AttendanceRollupService.Change> changes = new ArrayList<>();
+        for (Map.Entry<Key, Integer> entry : accepted.entrySet()) {
+            AttendanceRequestDTO row = rows.get(entry.getValue());
+            Student student = students.get(row.getStudentId());
+            Long branchId = student.getBranch() != null ? student.getBranch().getId() : null;
+            AttendanceRepository.AttendanceKey current = existing.get(entry.getKey());
+            String status;
+            if (current == null) {
+                status = INSERTED;
+                changes.add(AttendanceRollupService.Change.added(
+                        student.getId(), branchId, student.getSemester(), row.getDate(), row.getPresent()));
+            } else if (Objects.equals(current.getPresent(), row.getPresent())) {
+                status = UNCHANGED;
+            } else {
+                status = UPDATED;
+                int semester = current.getSemester() != null ? current.getSemester() : student.getSemester();
+                changes.add(AttendanceRollupService.Change.marked(
+                        student.getId(), branchId, semester, row.getDate(), current.getPresent(), row.getPresent()));
+            }
+            results[entry.getValue()] = result(entry.getValue(), status, null, null);
+            if (!UNCHANGED.equals(status)) {
+                writes.add(new Object[]{row.getStudentId(), row.getFacultyId(), Date.valueOf(row.getDate()),
+                        row.getPresent(), student.getSemester()});
+            }
+        }
+
+        if (!writes.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, writes, batchSize, (ps, args) -> {
+                for (int column = 0; column < args.length; column++) {
+                    ps.setObject(column + 1, args[column]);
+                }
+            });
+            attendanceRollupService.apply(changes);
+        }
+
+        // Read back ids of the rows just inserted so every accepted row can be returned in full
+        Map<Key, AttendanceRepository.AttendanceKey> stored = writes.isEmpty() ? existing : loadExisting(accepted.keySet());
+        for (Map.Entry<Key, Integer> entry : accepted.entrySet()) {
+            AttendanceRequestDTO row = rows.get(entry.getValue());
+            AttendanceRepository.AttendanceKey key = stored.get(entry.getKey());
+            results[entry.getValue()].setAttendance(toResponseDTO(key != null ? key.getId() : null, row,
+                    students.get(row.getStudentId()), faculty.get(row.getFacultyId())));
+        }
+
+        for (AttendanceUpsertResultDTO result : results) {
+            switch (result.getStatus()) {
+                case INSERTED -> response.setInserted(response.getInserted() + 1);
+                case UPDATED -> response.setUpdated(response.getUpdated() + 1);
+                case UNCHANGED -> response.setUnchanged(response.getUnchanged() + 1);
+                default -> response.setRejected(response.getRejected() + 1);
+            }
+            response.getRows().add(result);
+        }
+        logger.info("Bulk attendance: {} inserted, {} updated, {} unchanged, {} rejected",
+                response.getInserted(), response.getUpdated(), response.getUnchanged(), response.getRejected());
+        return response;
+    }
+
+    /**
+     * Existing rows for the keys, read under lock. The students are locked first, in id order so
+     * that concurrent batches cannot deadlock, which also covers keys that have no row yet; the
+     * attendance rows are then read with a locking read so the transaction sees the latest
+     * committed values rather than its snapshot.
+     */
+    private Map<Key, AttendanceRepository.AttendanceKey> lockExisting(Set<Key> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> studentIds = new HashSet<>();
+        Set<Date> dates = new HashSet<>();
+        for (Key key : keys) {
+            studentIds.add(key.studentId);
+            dates.add(Date.valueOf(key.date));
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("studentIds", studentIds).addValue("dates", dates);
+        attendanceRollupService.lockStudents(studentIds);
+        Map<Key, AttendanceRepository.AttendanceKey> existing = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id, student_id, faculty_id, date, present, semester FROM attendance " +
+                "WHERE student_id IN (:studentIds) AND date IN (:dates) FOR UPDATE",
+                params, rs -> {
+                    long facultyId = rs.getLong(3);
+                    if (rs.wasNull()) {
+                        return;
+                    }
+                    boolean present = rs.getBoolean(5);
+                    Boolean storedPresent = rs.wasNull() ? null : present;
+                    int semester = rs.getInt(6);
+                    Integer storedSemester = rs.wasNull() ? null : semester;
+                    Key key = new Key(rs.getLong(2), facultyId, rs.getDate(4).toLocalDate());
+                    if (keys.contains(key)) {
+                        existing.put(key, new LockedRow(rs.getLong(1), key, storedPresent, storedSemester));
+                    }
+                });
+        return existing;
+    }
+
+    private static class LockedRow implements AttendanceRepository.AttendanceKey {
+        private final Long id;
+        private final Key key;
+        private final Boolean present;
+        private final Integer semester;
+
+        LockedRow(Long id, Key key, Boolean present, Integer semester) {
+            this.id = id;
+            this.key = key;
+            this.present = present;
+            this.semester = semester;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getStudentId() {
+            return key.studentId;
+        }
+
+        @Override
+        public Long getFacultyId() {
+            return key.facultyId;
+        }
+
+        @Override
+        public LocalDate getDate() {
+            return key.date;
+        }
+
+        @Override
+        public Boolean getPresent() {
+            return present;
+        }
+
+        @Override
+        public Integer getSemester() {
+            return semester;
+        }
+    }
+
+    private Map<Key, AttendanceRepository.AttendanceKey> loadExisting(Set<Key> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> studentIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (Key key : keys) {
+            studentIds.add(key.studentId);
+            dates.add(key.date);
+        }
+        Map<Key, AttendanceRepository.AttendanceKey> existing = new HashMap<>();
+        for (AttendanceRepository.AttendanceKey row : attendanceRepository.findKeysByStudentIdInAndDateIn(studentIds, dates)) {
+            if (row.getFacultyId() == null) {
+                continue;
+            }
+            Key key = new Key(row.getStudentId(), row.getFacultyId(), row.getDate());
+            if (keys.contains(key)) {
+                existing.put(key, row);
+            }
+        }
+        return existing;
+    }
+
+    private static String validate(AttendanceRequestDTO row, Map<Long, Student> students, Map<Long, Faculty> faculty) {
+        if (row == null) {
+            return "Empty row";
+        }
+        if (row.getStudentId() == null || row.getFacultyId() == null || row.getDate() == null || row.getPresent() == null) {
+            return "studentId, facultyId, date and present are required";
+        }
+        if (!students.containsKey(row.getStudentId())) {
+            return "Student not found: " + row.getStudentId();
+        }
+        if (!faculty.containsKey(row.getFacultyId())) {
+            return "Faculty not found: " + row.getFacultyId();
+        }
+        return null;
+    }
+
+    private static AttendanceUpsertResultDTO result(int index, String status, String message, AttendanceResponseDTO attendance) {
+        AttendanceUpsertResultDTO result = new AttendanceUpsertResultDTO();
+        result.setIndex(index);
+        result.setStatus(status);
+        result.setMessage(message);
+        result.setAttendance(attendance);
+        return result;
+    }
+
+    private static AttendanceResponseDTO toResponseDTO(Long id, AttendanceRequestDTO row, Student student, Faculty faculty) {
+        AttendanceResponseDTO dto = new AttendanceResponseDTO();
+        dto.setId(id);
+        dto.setStudentId(student.getId());
+        dto.setStudentName(student.getUser() != null ? student.getUser().getName() : null);
+        dto.setFacultyId(faculty.getId());
+        dto.setFacultyName(faculty.getUser() != null ? faculty.getUser().getName() : null);
+        dto.setDate(row.getDate());
+        dto.setPresent(row.getPresent());
+        return dto;
+    }
+}
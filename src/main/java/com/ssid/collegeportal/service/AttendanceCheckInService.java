@@ -0,0 +1,286 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.AttendanceRequestDTO;
+import com.ssid.collegeportal.dto.AttendanceUpsertResultDTO;
+import com.ssid.collegeportal.dto.BulkAttendanceResponseDTO;
+import com.ssid.collegeportal.model.Faculty;
+import com.ssid.collegeportal.model.Student;
+import com.ssid.collegeportal.repository.FacultyRepository;
+import com.ssid.collegeportal.repository.StudentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QR check-in for in-person classes.
+ *
+ * Faculty display a token that changes every few seconds; it is an HMAC over the faculty,
+ * branch and time window, so a scan is verified in memory without touching the database.
+ * Accepted check-ins go into a bounded queue and are written as present marks by a periodic
+ * flush through {@link AttendanceBulkService}, one transaction per batch instead of one per
+ * student. A student scanning twice on the same day for the same faculty is only queued once.
+ */
+@Service
+public class AttendanceCheckInService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceCheckInService.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String DERIVED_KEY_LABEL = "attendance-check-in-v1";
+
+    public static final String QUEUED = "QUEUED";
+    public static final String ALREADY_CHECKED_IN = "ALREADY_CHECKED_IN";
+
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private FacultyRepository facultyRepository;
+    @Autowired
+    private AttendanceBulkService attendanceBulkService;
+
+    @Value("${app.attendance.check-in.secret:}")
+    private String secret;
+
+    @Value("${jwt.secret:SecretKeyForJWT}")
+    private String jwtSecret;
+
+    private byte[] signingKey;
+
+    @Value("${app.attendance.check-in.window-seconds:15}")
+    private int windowSeconds;
+
+    @Value("${app.attendance.check-in.batch-size:500}")
+    private int batchSize;
+
+    private final LoadingLruCache<String, StudentRef> students;
+    private final BlockingQueue<CheckIn> pending;
+    // "studentId|facultyId" -> day checked in; pruned once the day is over
+    private final Map<String, LocalDate> checkedIn = new ConcurrentHashMap<>();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    void initSigningKey() {
+        if (secret != null && !secret.isBlank()) {
+            signingKey = secret.getBytes(StandardCharsets.UTF_8);
+        } else {
+            // A labelled derivation, so check-in codes are never signed with the JWT key itself
+            logger.warn("app.attendance.check-in.secret is not set, deriving the check-in key from jwt.secret");
+            signingKey = hmac(jwtSecret.getBytes(StandardCharsets.UTF_8), DERIVED_KEY_LABEL);
+        }
+    }
+
+    public AttendanceCheckInService(@Value("${app.attendance.check-in.student-cache.max-entries:20000}") int maxStudents,
+                                    @Value("${app.attendance.check-in.max-pending:20000}") int maxPending) {
+        this.students = new LoadingLruCache<>(maxStudents);
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, maxPending));
+    }
+
+    private static class StudentRef {
+        private final long studentId;
+        private final Long branchId;
+
+        StudentRef(long studentId, Long branchId) {
+            this.studentId = studentId;
+            this.branchId = branchId;
+        }
+    }
+
+    private static class CheckIn {
+        private final String key;
+        private final long studentId;
+        private final long facultyId;
+        private final LocalDate date;
+
+        CheckIn(String key, long studentId, long facultyId, LocalDate date) {
+            this.key = key;
+            this.studentId = studentId;
+            this.facultyId = facultyId;
+            this.date = date;
+        }
+    }
+
+    public static class Token {
+        private final String value;
+        private final Instant expiresAt;
+
+        Token(String value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    /**
+     * Token for the current window, to be rendered as a QR code by the faculty's screen.
+     */
+    public Token issueToken(String facultyEmail, Long branchId) {
+        Faculty faculty = facultyRepository.findByUserEmail(facultyEmail)
+                .orElseThrow(() -> new RuntimeException("Faculty not found"));
+        long window = Instant.now().getEpochSecond() / windowSeconds;
+        String payload = faculty.getId() + "." + branchId + "." + window;
+        String token = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + ENCODER.encodeToString(sign(payload));
+        return new Token(token, Instant.ofEpochSecond((window + 1) * windowSeconds));
+    }
+
+    /**
+     * Verifies a scanned token and queues the student's present mark. Throws
+     * IllegalArgumentException for tokens that are malformed, forged, expired or meant for
+     * another branch, and IllegalStateException when the queue is full.
+     */
+    public String checkIn(String studentEmail, String token) {
+        String[] parts = token != null ? token.split("\\.") : new String[0];
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid check-in code");
+        }
+        String payload;
+        byte[] signature;
+        try {
+            payload = new String(DECODER.decode(parts[0]), StandardCharsets.UTF_8);
+            signature = DECODER.decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid check-in code");
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            throw new IllegalArgumentException("Invalid check-in code");
+        }
+        String[] fields = payload.split("\\.");
+        long facultyId = Long.parseLong(fields[0]);
+        Long branchId = "null".equals(fields[1]) ? null : Long.valueOf(fields[1]);
+        long window = Long.parseLong(fields[2]);
+        // The previous window is still accepted so a scan taken just before the code changed counts
+        long current = Instant.now().getEpochSecond() / windowSeconds;
+        if (window != current && window != current - 1) {
+            throw new IllegalArgumentException("Check-in code has expired");
+        }
+
+        StudentRef student = students.get(studentEmail, email -> {
+            Student found = studentRepository.findByUserEmail(email);
+            return found != null ? new StudentRef(found.getId(), found.getBranch() != null ? found.getBranch().getId() : null) : null;
+        });
+        if (student == null) {
+            throw new IllegalArgumentException("Student not found");
+        }
+        if (branchId != null && !branchId.equals(student.branchId)) {
+            throw new IllegalArgumentException("This check-in code is for another branch");
+        }
+
+        LocalDate today = LocalDate.now();
+        String key = student.studentId + "|" + facultyId;
+        if (today.equals(checkedIn.put(key, today))) {
+            duplicates.incrementAndGet();
+            return ALREADY_CHECKED_IN;
+        }
+        if (!pending.offer(new CheckIn(key, student.studentId, facultyId, today))) {
+            checkedIn.remove(key, today);
+            throw new IllegalStateException("Too many check-ins are waiting to be saved, try again shortly");
+        }
+        accepted.incrementAndGet();
+        return QUEUED;
+    }
+
+    public void invalidateStudents() {
+        students.invalidateAll();
+    }
+
+    @Scheduled(fixedDelayString = "${app.attendance.check-in.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        LocalDate today = LocalDate.now();
+        checkedIn.values().removeIf(day -> day.isBefore(today));
+        while (!pending.isEmpty()) {
+            List<CheckIn> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            pending.drainTo(batch, Math.max(1, batchSize));
+            List<AttendanceRequestDTO> rows = new ArrayList<>(batch.size());
+            for (CheckIn checkIn : batch) {
+                AttendanceRequestDTO row = new AttendanceRequestDTO();
+                row.setStudentId(checkIn.studentId);
+                row.setFacultyId(checkIn.facultyId);
+                row.setDate(checkIn.date);
+                row.setPresent(true);
+                rows.add(row);
+            }
+            try {
+                BulkAttendanceResponseDTO result = attendanceBulkService.upsert(rows);
+                written.addAndGet(result.getInserted() + result.getUpdated() + result.getUnchanged());
+                // Rejected rows (e.g. a faculty removed meanwhile) were never saved; let those students scan again
+                for (AttendanceUpsertResultDTO row : result.getRows()) {
+                    if (AttendanceBulkService.REJECTED.equals(row.getStatus())) {
+                        CheckIn checkIn = batch.get(row.getIndex());
+                        checkedIn.remove(checkIn.key, checkIn.date);
+                        failed.incrementAndGet();
+                        logger.warn("Check-in of student {} was rejected: {}", checkIn.studentId, row.getMessage());
+                    }
+                }
+                logger.debug("Flushed {} check-ins ({} inserted, {} updated)", rows.size(), result.getInserted(), result.getUpdated());
+            } catch (Exception e) {
+                // Forget these check-ins so the students can simply scan again
+                failed.addAndGet(batch.size());
+                batch.forEach(checkIn -> checkedIn.remove(checkIn.key, checkIn.date));
+                logger.error("Could not save {} attendance check-ins", batch.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("written", written.get());
+        stats.put("failed", failed.get());
+        stats.put("pending", pending.size());
+        stats.put("studentCache", students.getStats());
+        return stats;
+    }
+
+    private byte[] sign(String payload) {
+        return hmac(signingKey, payload);
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign check-in code", e);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.ssid.collegeportal.service;
+
+import com.itextpdf.text.DocumentException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports the attendance of a whole branch for one semester and date range.
+ *
+ * Rows are read through a forward-only streaming cursor and written to the response as they
+ * arrive, so memory use does not grow with the number of students or days. The XLSX variant
+ * pivots dates into columns and keeps only a small window of rows in memory; POI spills the
+ * rest to a temporary file until the workbook is written out.
+
+ */
+@Service
+public class AttendanceExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceExportService.class);
+
+    // Rows kept in memory by the streaming workbook before they are flushed to its temp file
+    private static final int XLSX_ROW_WINDOW = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Fetch size Integer.MIN_VALUE makes MySQL Connector/J stream the result set row by row
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    @Value("${app.attendance.export.max-days:400}")
+    private int maxDays;
+
+    @Autowired
+    public AttendanceExportService(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    // Also bounds the XLSX column count, which the format caps at 16384
+    public boolean isValidRange(LocalDate from, LocalDate to) {
+        return !from.isAfter(to) && ChronoUnit.DAYS.between(from, to) + 1 <= maxDays;
+    }
+
+    /**
+     * One line per attendance mark: date, student, faculty and whether the student was present.
+     */
+    public void writeCsv(Long branchId, int semester, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // Byte order mark so spreadsheet applications detect UTF-8 names
+        writer.write('\uFEFF');
+        writer.write("date,student_id,student_name,faculty_id,faculty_name,present\r\n");
+        long[] rows = new long[1];
+        try {
+            streamingJdbcTemplate.query(
+                    "SELECT a.date, a.student_id, su.name, a.faculty_id, fu.name, a.present " +
+                    "FROM attendance a JOIN student s ON s.id = a.student_id " +
+                    "LEFT JOIN users su ON su.id = s.user_id " +
+                    "LEFT JOIN faculty f ON f.id = a.faculty_id LEFT JOIN users fu ON fu.id = f.user_id " +
+                    "WHERE s.branch_id = ? AND a.semester = ? AND a.date BETWEEN ? AND ? " +
+                    "ORDER BY a.date, su.name, a.student_id",
+                    rs -> {
+                        try {
+                            writer.write(String.valueOf(rs.getDate(1)));
+                            writer.write(',');
+                            writer.write(String.valueOf(rs.getLong(2)));
+                            writer.write(',');
+                            writer.write(csv(rs.getString(3)));
+                            writer.write(',');
+                            long facultyId = rs.getLong(4);
+                            writer.write(rs.wasNull() ? "" : String.valueOf(facultyId));
+                            writer.write(',');
+                            writer.write(csv(rs.getString(5)));
+                            writer.write(',');
+                            boolean present = rs.getBoolean(6);
+                            writer.write(rs.wasNull() ? "" : present ? "P" : "A");
+                            writer.write("\r\n");
+                            rows[0]++;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    },
+                    branchId, semester, Date.valueOf(from), Date.valueOf(to));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; surface it as the IOException it is
+            throw e.getCause();
+        }
+        writer.flush();
+        logger.info("Exported {} attendance rows of branch {} semester {} as CSV in {} ms",
+                rows[0], branchId, semester, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * One row per student and one column per day on which the branch held classes. A cell reads
+     * P or A, or present/held when several classes were held that day, followed by totals.
+     */
+    public void writeXlsx(Long branchId, int semester, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        List<LocalDate> dates = jdbcTemplate.queryForList(
+                "SELECT DISTINCT a.date FROM attendance a JOIN student s ON s.id = a.student_id " +
+                "WHERE s.branch_id = ? AND a.semester = ? AND a.date BETWEEN ? AND ? ORDER BY a.date",
+                LocalDate.class, branchId, semester, Date.valueOf(from), Date.valueOf(to));
+        Map<LocalDate, Integer> columns = new HashMap<>();
+        for (int i = 0; i < dates.size(); i++) {
+            columns.put(dates.get(i), i + 2);
+        }
+        int totalColumn = dates.size() + 2;
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Semester " + semester);
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle.setFont(bold);
+
+            Row header = sheet.createRow(0);
+            header(header, 0, "Student ID", headerStyle);
+            header(header, 1, "Student", headerStyle);
+            for (int i = 0; i < dates.size(); i++) {
+                header(header, i + 2, dates.get(i).toString(), headerStyle);
+            }
+            header(header, totalColumn, "Present", headerStyle);
+            header(header, totalColumn + 1, "Held", headerStyle);
+            header(header, totalColumn + 2, "Percentage", headerStyle);
+            sheet.createFreezePane(2, 1);
+
+            // Ordered by student, so a row is complete as soon as the next student starts
+            long[] current = {-1, 0, 0};
+            Row[] row = new Row[1];
+            int[] rowIndex = {1};
+            streamingJdbcTemplate.query(
+                    "SELECT a.student_id, u.name, a.date, COUNT(*), SUM(CASE WHEN a.present THEN 1 ELSE 0 END) " +
+                    "FROM attendance a JOIN student s ON s.id = a.student_id LEFT JOIN users u ON u.id = s.user_id " +
+                    "WHERE s.branch_id = ? AND a.semester = ? AND a.date BETWEEN ? AND ? " +
+                    "GROUP BY a.student_id, u.name, a.date ORDER BY a.student_id, a.date",
+                    rs -> {
+                        long studentId = rs.getLong(1);
+                        if (studentId != current[0]) {
+                            finishRow(row[0], totalColumn, current[1], current[2]);
+                            row[0] = sheet.createRow(rowIndex[0]++);
+                            row[0].createCell(0).setCellValue(studentId);
+                            row[0].createCell(1).setCellValue(rs.getString(2) != null ? rs.getString(2) : "");
+                            current[0] = studentId;
+                            current[1] = 0;
+                            current[2] = 0;
+                        }
+                        long held = rs.getLong(4);
+                        long present = rs.getLong(5);
+                        current[1] += present;
+                        current[2] += held;
+                        Integer column = columns.get(rs.getDate(3).toLocalDate());
+                        if (column != null) {
+                            row[0].createCell(column).setCellValue(
+                                    held == 1 ? (present == 1 ? "P" : "A") : present + "/" + held);
+                        }
+                    },
+                    branchId, semester, Date.valueOf(from), Date.valueOf(to));
+            finishRow(row[0], totalColumn, current[1], current[2]);
+
+            workbook.write(out);
+            out.flush();
+            logger.info("Exported attendance of {} students x {} days of branch {} semester {} as XLSX in {} ms",
+                    rowIndex[0] - 1, dates.size(), branchId, semester, System.currentTimeMillis() - start);
+        } finally {
+            workbook.close();
+            workbook.dispose();
+        }
+    }
+
+    /**
+     * A student's attendance history as a PDF table, written page by page as rows are read.
+     */
+    public void writeStudentPdf(Long studentId, OutputStream out) throws IOException, DocumentException {
+        long start = System.currentTimeMillis();
+        StudentPdfReport report = new StudentPdfReport(out, "Attendance Report", studentId,
+                "Date", "Present", "Faculty Name", "Attendance ID");
+        try {
+            streamingJdbcTemplate.query(
+                    "SELECT a.date, a.present, fu.name, a.id FROM attendance a " +
+                    "LEFT JOIN faculty f ON f.id = a.faculty_id LEFT JOIN users fu ON fu.id = f.user_id " +
+                    "WHERE a.student_id = ? ORDER BY a.date, a.id",
+                    rs -> {
+                        Date date = rs.getDate(1);
+                        boolean present = rs.getBoolean(2);
+                        String presentCell = rs.wasNull() ? "" : present ? "Yes" : "No";
+                        try {
+                            report.addRow(date != null ? date.toString() : "", presentCell,
+                                    rs.getString(3) != null ? rs.getString(3) : "", String.valueOf(rs.getLong(4)));
+                        } catch (DocumentException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    },
+                    studentId);
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof DocumentException) {
+                throw (DocumentException) e.getCause();
+            }
+            throw e;
+        }
+        report.finish();
+        logger.info("Exported {} attendance rows of student {} as PDF in {} ms", report.getRows(), studentId,
+                System.currentTimeMillis() - start);
+    }
+
+    private static void header(Row row, int column, String value, CellStyle style) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
+    }
+
+    private static void finishRow(Row row, int totalColumn, long present, long held) {
+        if (row == null) {
+            return;
+        }
+        row.createCell(totalColumn).setCellValue(present);
+        row.createCell(totalColumn + 1).setCellValue(held);
+        row.createCell(totalColumn + 2).setCellValue(held == 0 ? 0.0 : Math.round(present * 1000.0 / held) / 10.0);
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,327 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.AttendanceRollupRowDTO;
+import com.ssid.collegeportal.model.AttendanceBranchDailyRollup;
+import com.ssid.collegeportal.repository.AttendanceBranchDailyRollupRepository;
+import com.ssid.collegeportal.repository.AttendanceStudentRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Maintains per-student-per-semester and per-branch-per-day attendance counts.
+ *
+ * Every attendance write reports its effect here as a {@link Change}, and the counts are moved
+ * by the same transaction, so reports read a handful of rollup rows instead of the attendance
+ * history. A nightly rebuild recomputes both tables from attendance to repair any drift, for
+ * example after a student changes branch or rows are edited directly in the database.
+ *
+ * Writers lock the rows of the students they touch ({@link #lockStudents}) before writing
+ * attendance. The rebuild works one branch at a time in its own short transaction under the
+ * same locks, so it only ever holds up writes for the branch it is recomputing.
+ */
+@Service
+public class AttendanceRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceRollupService.class);
+
+    private static final String STUDENT_DELTA_SQL =
+            "INSERT INTO attendance_student_rollup (student_id, semester, branch_id, total, present) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total = total + VALUES(total), present = present + VALUES(present), " +
+            "branch_id = VALUES(branch_id)";
+
+    private static final String BRANCH_DELTA_SQL =
+            "INSERT INTO attendance_branch_daily_rollup (branch_id, date, total, present) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total = total + VALUES(total), present = present + VALUES(present)";
+
+    private static final String PRESENT_COUNT = "SUM(CASE WHEN a.present THEN 1 ELSE 0 END)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private AttendanceStudentRollupRepository studentRollupRepository;
+    @Autowired
+    private AttendanceBranchDailyRollupRepository branchRollupRepository;
+    @Autowired
+    private AttendanceBitmapIndex attendanceBitmapIndex;
+
+    /**
+     * Effect of one attendance write on the rollups: a row appearing (+1 total), disappearing
+     * (-1 total) or flipping between present and absent (total unchanged).
+     */
+    public static class Change {
+        private final long studentId;
+        private final Long branchId;
+        private final int semester;
+        private final LocalDate date;
+        private final int totalDelta;
+        private final int presentDelta;
+
+        private Change(long studentId, Long branchId, int semester, LocalDate date, int totalDelta, int presentDelta) {
+            this.studentId = studentId;
+            this.branchId = branchId;
+            this.semester = semester;
+            this.date = date;
+            this.totalDelta = totalDelta;
+            this.presentDelta = presentDelta;
+        }
+
+        public static Change added(long studentId, Long branchId, int semester, LocalDate date, Boolean present) {
+            return new Change(studentId, branchId, semester, date, 1, Boolean.TRUE.equals(present) ? 1 : 0);
+        }
+
+        public static Change removed(long studentId, Long branchId, int semester, LocalDate date, Boolean present) {
+            return new Change(studentId, branchId, semester, date, -1, Boolean.TRUE.equals(present) ? -1 : 0);
+        }
+
+        public static Change marked(long studentId, Long branchId, int semester, LocalDate date, Boolean before, Boolean after) {
+            int delta = (Boolean.TRUE.equals(after) ? 1 : 0) - (Boolean.TRUE.equals(before) ? 1 : 0);
+            return new Change(studentId, branchId, semester, date, 0, delta);
+        }
+
+        public long getStudentId() {
+            return studentId;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public int getTotalDelta() {
+            return totalDelta;
+        }
+
+        public int getPresentDelta() {
+            return presentDelta;
+        }
+    }
+
+    /**
+     * Locks the students' rows until the transaction ends, always in id order so that two
+     * writers cannot deadlock on them. Attendance writers call this before reading or writing
+     * the students' attendance, which makes the rollup deltas they derive safe against
+     * concurrent writers and against the rebuild.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockStudents(Collection<Long> studentIds) {
+        lock(studentIds);
+    }
+
+    private void lock(Collection<Long> studentIds) {
+        Set<Long> ids = new TreeSet<>();
+        studentIds.forEach(id -> {
+            if (id != null) {
+                ids.add(id);
+            }
+        });
+        if (ids.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.queryForList("SELECT id FROM student WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", ids), Long.class);
+    }
+
+    /**
+     * Applies the changes as two batched upserts. Must run in the transaction that wrote the
+     * attendance rows so that both commit or neither does. The in-memory attendance index picks
+     * the same changes up once the transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Collection<Change> changes) {
+        attendanceBitmapIndex.refreshAfterCommit(changes);
+        Map<String, long[]> studentDeltas = new LinkedHashMap<>();
+        Map<String, Object[]> studentKeys = new LinkedHashMap<>();
+        Map<String, long[]> branchDeltas = new LinkedHashMap<>();
+        Map<String, Object[]> branchKeys = new LinkedHashMap<>();
+        for (Change change : changes) {
+            if (change.totalDelta == 0 && change.presentDelta == 0) {
+                continue;
+            }
+            String studentKey = change.studentId + "|" + change.semester;
+            studentKeys.putIfAbsent(studentKey, new Object[]{change.studentId, change.semester, change.branchId});
+            add(studentDeltas, studentKey, change);
+            if (change.branchId != null && change.date != null) {
+                String branchKey = change.branchId + "|" + change.date;
+                branchKeys.putIfAbsent(branchKey, new Object[]{change.branchId, Date.valueOf(change.date)});
+                add(branchDeltas, branchKey, change);
+            }
+        }
+
+        List<Object[]> studentRows = new ArrayList<>();
+        studentDeltas.forEach((key, delta) -> {
+            Object[] id = studentKeys.get(key);
+            studentRows.add(new Object[]{id[0], id[1], id[2], delta[0], delta[1]});
+        });
+        List<Object[]> branchRows = new ArrayList<>();
+        branchDeltas.forEach((key, delta) -> {
+            Object[] id = branchKeys.get(key);
+            branchRows.add(new Object[]{id[0], id[1], delta[0], delta[1]});
+        });
+        if (!studentRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(STUDENT_DELTA_SQL, studentRows);
+        }
+        if (!branchRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(BRANCH_DELTA_SQL, branchRows);
+        }
+    }
+
+    @Scheduled(cron = "${app.attendance.rollup.rebuild-cron:0 30 2 * * *}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Attendance rollup rebuild failed", e);
+        }
+    }
+
+    /**
+     * Recomputes both rollup tables from the attendance table, one branch per transaction.
+     * Returns the number of rollup rows written per table.
+     */
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Long> branchIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT branch_id FROM student WHERE branch_id IS NOT NULL ORDER BY branch_id", Long.class);
+        List<Long> scopes = new ArrayList<>(branchIds);
+        // Students without a branch only have student rollups
+        scopes.add(null);
+        int studentRows = 0;
+        int branchRows = 0;
+        for (Long branchId : scopes) {
+            int[] rows = transaction.execute(status -> rebuildBranch(branchId));
+            studentRows += rows[0];
+            branchRows += rows[1];
+        }
+        // Rollups of students or branches that no longer have anyone in them
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE r FROM attendance_student_rollup r LEFT JOIN student s ON s.id = r.student_id " +
+                    "WHERE s.id IS NULL");
+            jdbcTemplate.update("DELETE FROM attendance_branch_daily_rollup WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM student s WHERE s.branch_id = attendance_branch_daily_rollup.branch_id)");
+        });
+        long elapsed = System.currentTimeMillis() - start;
+        logger.info("Attendance rollups rebuilt: {} student rows, {} branch-day rows over {} branches in {} ms",
+                studentRows, branchRows, branchIds.size(), elapsed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("studentRows", studentRows);
+        result.put("branchDayRows", branchRows);
+        result.put("branches", branchIds.size());
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    // Student and branch-day rollups of one branch, or of the students without a branch when null
+    private int[] rebuildBranch(Long branchId) {
+        String scope = branchId != null ? "s.branch_id = ?" : "s.branch_id IS NULL";
+        Object[] args = branchId != null ? new Object[]{branchId} : new Object[0];
+        lock(jdbcTemplate.queryForList("SELECT s.id FROM student s WHERE " + scope, Long.class, args));
+        jdbcTemplate.update("DELETE r FROM attendance_student_rollup r JOIN student s ON s.id = r.student_id WHERE " + scope, args);
+        int studentRows = jdbcTemplate.update(
+                "INSERT INTO attendance_student_rollup (student_id, semester, branch_id, total, present) " +
+                "SELECT a.student_id, COALESCE(a.semester, s.semester), s.branch_id, COUNT(*), " + PRESENT_COUNT + " " +
+                "FROM attendance a JOIN student s ON s.id = a.student_id WHERE " + scope + " " +
+                "GROUP BY a.student_id, COALESCE(a.semester, s.semester), s.branch_id", args);
+        if (branchId == null) {
+            return new int[]{studentRows, 0};
+        }
+        jdbcTemplate.update("DELETE FROM attendance_branch_daily_rollup WHERE branch_id = ?", branchId);
+        int branchRows = jdbcTemplate.update(
+                "INSERT INTO attendance_branch_daily_rollup (branch_id, date, total, present) " +
+                "SELECT s.branch_id, a.date, COUNT(*), " + PRESENT_COUNT + " " +
+                "FROM attendance a JOIN student s ON s.id = a.student_id " +
+                "WHERE s.branch_id = ? AND a.date IS NOT NULL GROUP BY s.branch_id, a.date", branchId);
+        return new int[]{studentRows, branchRows};
+    }
+
+    public List<AttendanceRollupRowDTO> getStudentRows(Long branchId, Integer semester, Double belowPercent) {
+        List<AttendanceRollupRowDTO> rows = new ArrayList<>();
+        for (AttendanceStudentRollupRepository.StudentAttendanceRow row
+                : studentRollupRepository.findStudentRows(branchId, semester, belowPercent)) {
+            AttendanceRollupRowDTO dto = new AttendanceRollupRowDTO();
+            dto.setStudentId(row.getStudentId());
+            dto.setStudentName(row.getStudentName());
+            dto.setBranchName(row.getBranchName());
+            dto.setSemester(row.getSemester());
+            fillCounts(dto, row.getTotal(), row.getPresent());
+            rows.add(dto);
+        }
+        return rows;
+    }
+
+    public List<AttendanceRollupRowDTO> getStudentSemesters(Long studentId) {
+        List<AttendanceRollupRowDTO> rows = new ArrayList<>();
+        studentRollupRepository.findByStudentIdOrderBySemesterAsc(studentId).forEach(rollup -> {
+            AttendanceRollupRowDTO dto = new AttendanceRollupRowDTO();
+            dto.setStudentId(rollup.getStudentId());
+            dto.setBranchId(rollup.getBranchId());
+            dto.setSemester(rollup.getSemester());
+            fillCounts(dto, rollup.getTotal(), rollup.getPresent());
+            rows.add(dto);
+        });
+        return rows;
+    }
+
+    public List<AttendanceRollupRowDTO> getBranchDays(Long branchId, LocalDate from, LocalDate to) {
+        List<AttendanceRollupRowDTO> rows = new ArrayList<>();
+        for (AttendanceBranchDailyRollup rollup : branchRollupRepository.findByBranchIdAndDateBetweenOrderByDateAsc(branchId, from, to)) {
+            AttendanceRollupRowDTO dto = new AttendanceRollupRowDTO();
+            dto.setBranchId(rollup.getBranchId());
+            dto.setDate(rollup.getDate());
+            fillCounts(dto, rollup.getTotal(), rollup.getPresent());
+            rows.add(dto);
+        }
+        return rows;
+    }
+
+    public List<AttendanceRollupRowDTO> getBranchTotals(LocalDate from, LocalDate to) {
+        List<AttendanceRollupRowDTO> rows = new ArrayList<>();
+        for (AttendanceBranchDailyRollupRepository.BranchAttendanceRow row : branchRollupRepository.summarizeBranches(from, to)) {
+            AttendanceRollupRowDTO dto = new AttendanceRollupRowDTO();
+            dto.setBranchId(row.getBranchId());
+            dto.setBranchName(row.getBranchName());
+            fillCounts(dto, row.getTotal(), row.getPresent());
+            rows.add(dto);
+        }
+        return rows;
+    }
+
+    private static void add(Map<String, long[]> deltas, String key, Change change) {
+        long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+        delta[0] += change.totalDelta;
+        delta[1] += change.presentDelta;
+    }
+
+    private static void fillCounts(AttendanceRollupRowDTO dto, Long total, Long present) {
+        long t = Objects.requireNonNullElse(total, 0L);
+        long p = Objects.requireNonNullElse(present, 0L);
+        dto.setTotal(t);
+        dto.setPresent(p);
+        dto.setPercentage(t == 0 ? 0.0 : p * 100.0 / t);
+    }
+}
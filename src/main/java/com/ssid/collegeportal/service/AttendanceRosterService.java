@@ -0,0 +1,143 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.AttendanceRequestDTO;
+import com.ssid.collegeportal.dto.AttendanceRosterDTO;
+import com.ssid.collegeportal.dto.AttendanceRosterEntryDTO;
+import com.ssid.collegeportal.dto.AttendanceRosterSubmitDTO;
+import com.ssid.collegeportal.dto.BulkAttendanceResponseDTO;
+import com.ssid.collegeportal.repository.AttendanceRepository;
+import com.ssid.collegeportal.repository.FacultyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class rosters for taking attendance, and submissions that carry only what changed.
+ *
+ * A roster is the cohort with the faculty's marks for one day, read in a single projection
+ * query and stamped with a version hash. A submission names the roster version it was based
+ * on plus the students to mark absent (or explicitly present); everyone else defaults to
+ * present. Only rows whose mark actually changes are written, through the bulk upsert.
+ */
+@Service
+public class AttendanceRosterService {
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+    @Autowired
+    private FacultyRepository facultyRepository;
+    @Autowired
+    private AttendanceBulkService attendanceBulkService;
+
+    /**
+     * Thrown when a submission was based on an outdated roster; carries the current one.
+     */
+    public static class RosterConflictException extends RuntimeException {
+        private final AttendanceRosterDTO current;
+
+        RosterConflictException(AttendanceRosterDTO current) {
+            super("Roster has changed since it was loaded");
+            this.current = current;
+        }
+
+        public AttendanceRosterDTO getCurrent() {
+            return current;
+        }
+    }
+
+    public Long resolveFacultyId(Long facultyId, String email) {
+        if (facultyId != null) {
+            return facultyId;
+        }
+        return facultyRepository.findByUserEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("facultyId is required"))
+                .getId();
+    }
+
+    public AttendanceRosterDTO getRoster(Long branchId, int year, int semester, Long facultyId, LocalDate date) {
+        AttendanceRosterDTO roster = new AttendanceRosterDTO();
+        roster.setBranchId(branchId);
+        roster.setYear(year);
+        roster.setSemester(semester);
+        roster.setFacultyId(facultyId);
+        roster.setDate(date);
+        for (AttendanceRepository.RosterRow row : attendanceRepository.findRoster(branchId, year, semester, facultyId, date)) {
+            AttendanceRosterEntryDTO entry = new AttendanceRosterEntryDTO();
+            entry.setStudentId(row.getStudentId());
+            entry.setStudentName(row.getStudentName());
+            entry.setAttendanceId(row.getAttendanceId());
+            entry.setPresent(row.getPresent());
+            roster.getStudents().add(entry);
+        }
+        roster.setVersion(version(roster.getStudents()));
+        return roster;
+    }
+
+    @Transactional
+    public BulkAttendanceResponseDTO submit(AttendanceRosterSubmitDTO submission, Long facultyId) {
+        LocalDate date = submission.getDate() != null ? submission.getDate() : LocalDate.now();
+        AttendanceRosterDTO roster = getRoster(submission.getBranchId(), submission.getYear(),
+                submission.getSemester(), facultyId, date);
+        if (!roster.getVersion().equals(submission.getVersion())) {
+            throw new RosterConflictException(roster);
+        }
+
+        Set<Long> absent = new HashSet<>(submission.getAbsent());
+        Set<Long> present = new HashSet<>(submission.getPresent());
+        Set<Long> onRoster = new HashSet<>();
+        roster.getStudents().forEach(entry -> onRoster.add(entry.getStudentId()));
+        for (Long studentId : absent) {
+            if (present.contains(studentId)) {
+                throw new IllegalArgumentException("Student " + studentId + " is listed as both absent and present");
+            }
+        }
+        if (!onRoster.containsAll(absent) || !onRoster.containsAll(present)) {
+            throw new IllegalArgumentException("Submission lists students who are not on the roster");
+        }
+
+        List<AttendanceRequestDTO> rows = new ArrayList<>();
+        for (AttendanceRosterEntryDTO entry : roster.getStudents()) {
+            boolean wanted;
+            if (absent.contains(entry.getStudentId())) {
+                wanted = false;
+            } else if (present.contains(entry.getStudentId()) || entry.getPresent() == null) {
+                wanted = true;
+            } else {
+                continue;
+            }
+            if (entry.getPresent() != null && entry.getPresent() == wanted) {
+                continue;
+            }
+            AttendanceRequestDTO row = new AttendanceRequestDTO();
+            row.setStudentId(entry.getStudentId());
+            row.setFacultyId(facultyId);
+            row.setDate(date);
+            row.setPresent(wanted);
+            rows.add(row);
+        }
+        return attendanceBulkService.upsert(rows);
+    }
+
+    private static String version(List<AttendanceRosterEntryDTO> students) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (AttendanceRosterEntryDTO entry : students) {
+                digest.update((entry.getStudentId() + ":" + entry.getAttendanceId() + ":" + entry.getPresent() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
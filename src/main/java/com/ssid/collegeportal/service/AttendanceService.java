@@ -1,6 +1,7 @@
 package com.ssid.collegeportal.service;
 
 import com.ssid.collegeportal.dto.AttendanceRequestDTO;
+import com.ssid.collegeportal.dto.AttendanceSummaryDTO;
 import com.ssid.collegeportal.model.Attendance;
 import com.ssid.collegeportal.model.Faculty;
 import com.ssid.collegeportal.model.Student;
@@ -8,19 +9,50 @@ import com.ssid.collegeportal.repository.AttendanceRepository;
 import com.ssid.collegeportal.repository.FacultyRepository;
 import com.ssid.collegeportal.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class AttendanceService {
+    // Lower bound for open-ended date ranges
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+
+    /**
+     * Thrown when a write would give a student a second mark from the same faculty for the same
+     * day; carries the id of the mark that already exists.
+     */
+    public static class DuplicateAttendanceException extends RuntimeException {
+        private final Long existingId;
+
+        DuplicateAttendanceException(Long existingId) {
+            super("Attendance is already marked for this student, faculty and date");
+            this.existingId = existingId;
+        }
+
+        public Long getExistingId() {
+            return existingId;
+        }
+    }
+
     @Autowired
     private AttendanceRepository attendanceRepository;
     @Autowired
     private StudentRepository studentRepository;
     @Autowired
     private FacultyRepository facultyRepository;
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     public List<Attendance> getAllAttendance() {
         return attendanceRepository.findAll();
@@ -31,12 +63,43 @@ public class AttendanceService {
     }
 
     public List<Attendance> getAttendanceByStudentId(Long studentId) {
-        return attendanceRepository.findAll().stream()
-                .filter(a -> a.getStudent() != null && a.getStudent().getId().equals(studentId))
-                .toList();
+        return attendanceRepository.findByStudentIdOrderByDateAsc(studentId);
+    }
+
+    public List<Attendance> getAttendanceByStudentId(Long studentId, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return getAttendanceByStudentId(studentId);
+        }
+        return attendanceRepository.findByStudentIdAndDateBetweenOrderByDateAsc(studentId,
+                from != null ? from : EARLIEST, to != null ? to : LocalDate.now());
+    }
+
+    public AttendanceSummaryDTO getAttendanceSummary(Long studentId, LocalDate from, LocalDate to) {
+        AttendanceRepository.AttendanceSummary summary;
+        if (from == null && to == null) {
+            summary = attendanceRepository.summarizeByStudentId(studentId);
+        } else {
+            from = from != null ? from : EARLIEST;
+            to = to != null ? to : LocalDate.now();
+            summary = attendanceRepository.summarizeByStudentIdAndDateBetween(studentId, from, to);
+        }
+        AttendanceSummaryDTO dto = new AttendanceSummaryDTO();
+        dto.setStudentId(studentId);
+        dto.setFrom(from);
+        dto.setTo(to);
+        long total = summary.getTotal() != null ? summary.getTotal() : 0;
+        long present = summary.getPresent() != null ? summary.getPresent() : 0;
+        dto.setTotal(total);
+        dto.setPresent(present);
+        dto.setAbsent(total - present);
+        dto.setPercentage(summary.getPercentage() != null ? summary.getPercentage() : 0.0);
+        return dto;
     }
 
+    @Transactional
     public Attendance createAttendance(AttendanceRequestDTO dto) {
+        attendanceRollupService.lockStudents(Collections.singleton(dto.getStudentId()));
+        checkNotMarked(dto, null);
         Student student = studentRepository.findById(dto.getStudentId()).orElse(null);
         Faculty faculty = facultyRepository.findById(dto.getFacultyId()).orElse(null);
         Attendance attendance = new Attendance();
@@ -44,21 +107,94 @@ public class AttendanceService {
         attendance.setFaculty(faculty);
         attendance.setDate(dto.getDate());
         attendance.setPresent(dto.getPresent());
-        return attendanceRepository.save(attendance);
+        attendance.setSemester(student != null ? student.getSemester() : null);
+        Attendance saved = attendanceRepository.save(attendance);
+        List<AttendanceRollupService.Change> changes = new ArrayList<>();
+        addRollupChange(changes, saved, true);
+        attendanceRollupService.apply(changes);
+        return saved;
     }
 
+    @Transactional
     public Attendance updateAttendance(Long id, AttendanceRequestDTO dto) {
-        Attendance attendance = attendanceRepository.findById(id).orElseThrow();
+        attendanceRollupService.lockStudents(Arrays.asList(currentStudentId(id), dto.getStudentId()));
+        Attendance attendance = lockAttendance(id).orElseThrow();
+        checkNotMarked(dto, id);
+        List<AttendanceRollupService.Change> changes = new ArrayList<>();
+        addRollupChange(changes, attendance, false);
+        Long previousStudentId = attendance.getStudent() != null ? attendance.getStudent().getId() : null;
+
         Student student = studentRepository.findById(dto.getStudentId()).orElse(null);
         Faculty faculty = facultyRepository.findById(dto.getFacultyId()).orElse(null);
         attendance.setStudent(student);
         attendance.setFaculty(faculty);
         attendance.setDate(dto.getDate());
         attendance.setPresent(dto.getPresent());
-        return attendanceRepository.save(attendance);
+        if (student == null) {
+            attendance.setSemester(null);
+        } else if (!student.getId().equals(previousStudentId) || attendance.getSemester() == null) {
+            attendance.setSemester(student.getSemester());
+        }
+        Attendance saved = attendanceRepository.save(attendance);
+        addRollupChange(changes, saved, true);
+        attendanceRollupService.apply(changes);
+        return saved;
     }
 
+    @Transactional
     public void deleteAttendance(Long id) {
-        attendanceRepository.deleteById(id);
+        attendanceRollupService.lockStudents(Collections.singleton(currentStudentId(id)));
+        lockAttendance(id).ifPresent(attendance -> {
+            List<AttendanceRollupService.Change> changes = new ArrayList<>();
+            addRollupChange(changes, attendance, false);
+            attendanceRepository.delete(attendance);
+            attendanceRollupService.apply(changes);
+        });
+    }
+
+    // The student is locked, so no other writer can add the mark between this check and the insert
+    private void checkNotMarked(AttendanceRequestDTO dto, Long exceptId) {
+        if (dto.getStudentId() == null || dto.getFacultyId() == null || dto.getDate() == null) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM attendance WHERE student_id = ? AND faculty_id = ? AND date = ? FOR UPDATE",
+                Long.class, dto.getStudentId(), dto.getFacultyId(), Date.valueOf(dto.getDate()));
+        for (Long existing : ids) {
+            if (!existing.equals(exceptId)) {
+                throw new DuplicateAttendanceException(existing);
+            }
+        }
+    }
+
+    // Read before the row is loaded, so the rollup locks are held when its current values are read
+    private Long currentStudentId(Long attendanceId) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT student_id FROM attendance WHERE id = ?", Long.class, attendanceId);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * Loads the row with a locking read. The plain read in currentStudentId already fixed this
+     * transaction's snapshot, so a plain load could miss a write committed while the student
+     * lock was awaited. Should the row have moved to another student meanwhile, that student is
+     * locked as well.
+     */
+    private Optional<Attendance> lockAttendance(Long id) {
+        Optional<Attendance> attendance = attendanceRepository.findByIdForUpdate(id);
+        attendance.map(Attendance::getStudent).ifPresent(student ->
+                attendanceRollupService.lockStudents(Collections.singleton(student.getId())));
+        return attendance;
+    }
+
+    private static void addRollupChange(List<AttendanceRollupService.Change> changes, Attendance attendance, boolean added) {
+        Student student = attendance.getStudent();
+        if (student == null) {
+            return;
+        }
+        Long branchId = student.getBranch() != null ? student.getBranch().getId() : null;
+        int semester = attendance.getSemester() != null ? attendance.getSemester() : student.getSemester();
+        changes.add(added
+                ? AttendanceRollupService.Change.added(student.getId(), branchId, semester, attendance.getDate(), attendance.getPresent())
+                : AttendanceRollupService.Change.removed(student.getId(), branchId, semester, attendance.getDate(), attendance.getPresent()));
     }
 }
@@ -0,0 +1,62 @@
+package com.ssid.collegeportal.service;
+
+/**
+ * Count-Min sketch over long keys: fixed memory, estimates never undercount and overcount by
+ * at most a small fraction of the total. Not thread-safe; callers synchronize.
+ */
+public class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L};
+
+    private final int depth;
+    private final int mask;
+    private final long[][] counts;
+    private long total;
+
+    /**
+     * @param depth number of hash rows (at most 8); more rows lower the chance of a bad estimate
+     * @param width counters per row, rounded up to a power of two; wider rows lower the overcount
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = Math.max(1, Math.min(depth, SEEDS.length));
+        int size = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+        this.mask = size - 1;
+        this.counts = new long[this.depth][size];
+    }
+
+    /**
+     * Adds {@code count} occurrences of {@code key} and returns its new estimated count.
+     */
+    public long add(long key, long count) {
+        total += count;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = column(key, row);
+            counts[row][column] += count;
+            estimate = Math.min(estimate, counts[row][column]);
+        }
+        return estimate;
+    }
+
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row][column(key, row)]);
+        }
+        return estimate;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    private int column(long key, int row) {
+        long hash = (key ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 31;
+        hash *= 0x94D049BB133111EBL;
+        hash ^= hash >>> 29;
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,241 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.model.MigrationCheckpoint;
+import com.ssid.collegeportal.repository.MigrationCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves legacy document_files.file_data BLOBs into the {@link DocumentContentStore}.
+ *
+ * Each BLOB is read in fixed-size pages with SUBSTRING so that neither the driver nor the heap
+ * ever holds a whole file, and reading is throttled to a bytes-per-second budget. The stored
+ * copy is verified against a checksum computed by MySQL before the row is switched over; the
+ * switch sets storage_path and clears file_data in one statement, so readers always find the
+ * content in exactly one place. Progress is checkpointed per row and survives restarts.
+ */
+@Service
+public class DocumentContentMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentContentMigrationService.class);
+
+    static final String CHECKPOINT_NAME = "document-content-store";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DocumentContentStore contentStore;
+    @Autowired
+    private MigrationCheckpointRepository checkpointRepository;
+
+    @Value("${app.content.migration.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.content.migration.bytes-per-second:5242880}")
+    private long bytesPerSecond;
+
+    @Value("${app.content.migration.page-bytes:1048576}")
+    private int pageBytes;
+
+    @Value("${app.content.migration.rows-per-run:50}")
+    private int rowsPerRun;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private final AtomicLong migratedFiles = new AtomicLong();
+    private final AtomicLong migratedBytes = new AtomicLong();
+    private final AtomicLong failedFiles = new AtomicLong();
+
+    @Scheduled(fixedDelayString = "${app.content.migration.interval-ms:60000}")
+    public void scheduledRun() {
+        if (enabled) {
+            runBatch();
+        }
+    }
+
+    /**
+     * Migrates up to {@code rows-per-run} documents after the checkpoint. Returns the number
+     * migrated, or -1 when another batch is already in progress.
+     */
+    public int runBatch() {
+        if (!running.tryLock()) {
+            return -1;
+        }
+        try {
+            MigrationCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                    .orElseGet(() -> new MigrationCheckpoint(CHECKPOINT_NAME, 0L, null));
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM document_files WHERE file_data IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    Long.class, checkpoint.getLastId(), rowsPerRun);
+            if (ids.isEmpty()) {
+                if (checkpoint.getLastId() > 0) {
+                    // End of the table: start over so rows that failed earlier are retried
+                    saveCheckpoint(checkpoint, 0L);
+                }
+                return 0;
+            }
+            int migrated = 0;
+            for (Long id : ids) {
+                if (migrate(id)) {
+                    migrated++;
+                }
+                saveCheckpoint(checkpoint, id);
+            }
+            logger.info("Content migration batch finished: {} of {} documents moved to the content store", migrated, ids.size());
+            return migrated;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("running", running.isLocked());
+        status.put("remainingDocuments", jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM document_files WHERE file_data IS NOT NULL", Long.class));
+        status.put("checkpointId", checkpointRepository.findById(CHECKPOINT_NAME).map(MigrationCheckpoint::getLastId).orElse(0L));
+        status.put("migratedDocuments", migratedFiles.get());
+        status.put("migratedBytes", migratedBytes.get());
+        status.put("failedDocuments", failedFiles.get());
+        status.put("bytesPerSecond", bytesPerSecond);
+        return status;
+    }
+
+    private boolean migrate(Long id) {
+        DocumentContentStore.StoredContent stored;
+        try {
+            stored = contentStore.write(new BlobPageInputStream(id));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not copy content of document ID: {}", id, e);
+            failedFiles.incrementAndGet();
+            return false;
+        }
+
+        try {
+            String expected = jdbcTemplate.queryForObject(
+                    "SELECT LOWER(SHA2(file_data, 256)) FROM document_files WHERE id = ?", String.class, id);
+            if (!stored.getChecksum().equals(expected) || !stored.getChecksum().equals(contentStore.checksum(stored.getStoragePath()))) {
+                logger.warn("Checksum mismatch migrating document ID: {}, keeping the database copy", id);
+                contentStore.delete(stored.getStoragePath());
+                failedFiles.incrementAndGet();
+                return false;
+            }
+            int updated = jdbcTemplate.update(
+                    "UPDATE document_files SET storage_path = ?, checksum = ?, file_size = ?, file_data = NULL " +
+                    "WHERE id = ? AND file_data IS NOT NULL AND storage_path IS NULL",
+                    stored.getStoragePath(), stored.getChecksum(), stored.getSize(), id);
+            if (updated == 0) {
+                // Deleted or migrated by someone else while we were copying
+                contentStore.delete(stored.getStoragePath());
+                return false;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not switch document ID: {} to the content store", id, e);
+            contentStore.delete(stored.getStoragePath());
+            failedFiles.incrementAndGet();
+            return false;
+        }
+        migratedFiles.incrementAndGet();
+        migratedBytes.addAndGet(stored.getSize());
+        return true;
+    }
+
+    private void saveCheckpoint(MigrationCheckpoint checkpoint, Long lastId) {
+        checkpoint.setLastId(lastId);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    /**
+     * Reads one BLOB page by page, sleeping as needed to stay within the byte budget.
+     */
+    private class BlobPageInputStream extends InputStream {
+        private final Long id;
+        private final long startedAt = System.nanoTime();
+        private byte[] page = new byte[0];
+        private int position;
+        private long offset = 1; // SUBSTRING positions are 1-based
+        private long totalRead;
+        private boolean exhausted;
+
+        BlobPageInputStream(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return page[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, page.length - position);
+            System.arraycopy(page, position, buffer, off, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            if (position < page.length) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            byte[] next = jdbcTemplate.queryForObject(
+                    "SELECT SUBSTRING(file_data, ?, ?) FROM document_files WHERE id = ?",
+                    byte[].class, offset, pageBytes, id);
+            if (next == null) {
+                throw new IOException("Content of document ID " + id + " disappeared during migration");
+            }
+            if (next.length < pageBytes) {
+                exhausted = true;
+            }
+            page = next;
+            position = 0;
+            offset += next.length;
+            totalRead += next.length;
+            throttle();
+            return next.length > 0;
+        }
+
+        private void throttle() throws IOException {
+            if (bytesPerSecond <= 0) {
+                return;
+            }
+            long expectedNanos = totalRead * 1_000_000_000L / bytesPerSecond;
+            long aheadNanos = expectedNanos - (System.nanoTime() - startedAt);
+            if (aheadNanos > 0) {
+                try {
+                    Thread.sleep(aheadNanos / 1_000_000, (int) (aheadNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while throttling content migration", e);
+                }
+            }
+        }
+    }
+}
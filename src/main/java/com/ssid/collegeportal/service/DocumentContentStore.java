@@ -0,0 +1,135 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.model.DocumentFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * File-system store for document contents, replacing the document_files.file_data BLOB.
+ * Files are written under a random name sharded into two directory levels, and every write
+ * records the SHA-256 of what was stored.
+ */
+@Service
+public class DocumentContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentContentStore.class);
+
+    @Value("${app.content.dir:${app.upload.dir:${user.dir}/uploads}/content}")
+    private String contentDir;
+
+    public static class StoredContent {
+        private final String storagePath;
+        private final long size;
+        private final String checksum;
+
+        StoredContent(String storagePath, long size, String checksum) {
+            this.storagePath = storagePath;
+            this.size = size;
+            this.checksum = checksum;
+        }
+
+        public String getStoragePath() {
+            return storagePath;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+    }
+
+    public StoredContent write(InputStream content) throws IOException {
+        Path root = root();
+        Files.createDirectories(root);
+        String name = UUID.randomUUID().toString().replace("-", "");
+        String storagePath = name.substring(0, 2) + "/" + name.substring(2, 4) + "/" + name;
+        Path target = resolve(storagePath);
+        Files.createDirectories(target.getParent());
+
+        Path temp = Files.createTempFile(root, "incoming-", ".tmp");
+        MessageDigest digest = sha256();
+        long size;
+        try (InputStream source = content;
+             OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+            size = source.transferTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return new StoredContent(storagePath, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Opens the content of a document from wherever it currently lives: the content store once
+     * it has been written or migrated there, otherwise the legacy BLOB column.
+     */
+    public InputStream open(DocumentFile file) throws IOException {
+        if (file.getStoragePath() != null) {
+            return Files.newInputStream(resolve(file.getStoragePath()));
+        }
+        if (file.getFileData() != null) {
+            return new ByteArrayInputStream(file.getFileData());
+        }
+        throw new FileNotFoundException("No content stored for file ID: " + file.getId());
+    }
+
+    public String checksum(String storagePath) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(resolve(storagePath)), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public boolean delete(String storagePath) {
+        try {
+            return Files.deleteIfExists(resolve(storagePath));
+        } catch (IOException e) {
+            logger.warn("Could not delete stored content: {}", storagePath, e);
+            return false;
+        }
+    }
+
+    private Path root() {
+        return Paths.get(contentDir).toAbsolutePath().normalize();
+    }
+
+    private Path resolve(String storagePath) {
+        Path root = root();
+        Path path = root.resolve(storagePath).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Storage path escapes the content directory: " + storagePath);
+        }
+        return path;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.ssid.collegeportal.service;
 
+import com.ssid.collegeportal.dto.DocumentSearchResultDTO;
 import com.ssid.collegeportal.model.DocumentFile;
+import com.ssid.collegeportal.model.DocumentOwnerType;
 import com.ssid.collegeportal.repository.DocumentFileRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,29 +21,55 @@ public class DocumentFileService {
     private static final Logger logger = LoggerFactory.getLogger(DocumentFileService.class);
 
     private final DocumentFileRepository documentFileRepository;
+    private final DocumentSearchIndexService searchIndexService;
+    private final DocumentContentStore contentStore;
 
     @Autowired
-    public DocumentFileService(DocumentFileRepository documentFileRepository) {
+    public DocumentFileService(DocumentFileRepository documentFileRepository,
+                               DocumentSearchIndexService searchIndexService,
+                               DocumentContentStore contentStore) {
         this.documentFileRepository = documentFileRepository;
+        this.searchIndexService = searchIndexService;
+        this.contentStore = contentStore;
     }
 
     public DocumentFile uploadFile(MultipartFile file, String uploadedBy, String description) throws IOException {
+        return uploadFile(file, uploadedBy, description, null);
+    }
+
+    /**
+     * Uploads a file on behalf of an owner, which the orphan collector uses to find files whose
+     * owner is gone.
+     */
+    public DocumentFile uploadFile(MultipartFile file, String uploadedBy, String description,
+                                   DocumentOwnerType ownerType) throws IOException {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be null or empty");
         }
 
+        DocumentContentStore.StoredContent content = contentStore.write(file.getInputStream());
         DocumentFile documentFile = DocumentFile.builder()
                 .fileName(file.getOriginalFilename())
                 .fileType(file.getContentType())
-                .fileData(file.getBytes())
+                .storagePath(content.getStoragePath())
+                .checksum(content.getChecksum())
+                .fileSize(content.getSize())
                 .uploadedBy(uploadedBy)
                 .description(description)
+                .ownerType(ownerType)
                 .build();
 
-        DocumentFile savedFile = documentFileRepository.save(documentFile);
+        DocumentFile savedFile;
+        try {
+            savedFile = documentFileRepository.save(documentFile);
+        } catch (RuntimeException e) {
+            contentStore.delete(content.getStoragePath());
+            throw e;
+        }
         logger.info("File uploaded successfully: {} ({} bytes) by user: {}",
                    savedFile.getFileName(), savedFile.getFileSize(), uploadedBy);
 
+        searchIndexService.indexAsync(savedFile);
         return savedFile;
     }
 
@@ -59,6 +88,10 @@ public class DocumentFileService {
         });
     }
 
+    public InputStream openContent(DocumentFile file) throws IOException {
+        return contentStore.open(file);
+    }
+
     public List<DocumentFile> getAllFiles() {
         return documentFileRepository.findAll();
     }
@@ -75,11 +108,20 @@ public class DocumentFileService {
         return documentFileRepository.findByFileNameContainingIgnoreCase(fileName);
     }
 
+    public List<DocumentSearchResultDTO> searchFilesByContent(String query, int limit) {
+        return searchIndexService.search(query, limit);
+    }
+
     public void deleteFile(Long id) {
         if (!documentFileRepository.existsById(id)) {
             throw new RuntimeException("File not found with ID: " + id);
         }
+        String storagePath = documentFileRepository.findStoragePathById(id).orElse(null);
         documentFileRepository.deleteById(id);
+        if (storagePath != null) {
+            contentStore.delete(storagePath);
+        }
+        searchIndexService.removeAsync(id);
         logger.info("File deleted successfully with ID: {}", id);
     }
 
@@ -0,0 +1,469 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.DocumentSearchResultDTO;
+import com.ssid.collegeportal.model.DocumentFile;
+import com.ssid.collegeportal.repository.DocumentFileRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text index over uploaded documents.
+ *
+ * Text is extracted on a single background thread so uploads never wait for PDF parsing.
+ * The index lives in memory and is persisted as a snapshot plus an append-only journal of
+ * incremental changes, which is folded back into the snapshot once it grows large.
+ */
+@Service
+public class DocumentSearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentSearchIndexService.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x44534958;
+    private static final byte OP_ADD = 'A';
+    private static final byte OP_REMOVE = 'R';
+    private static final int FILE_NAME_WEIGHT = 3;
+    private static final int SNIPPET_LENGTH = 300;
+    private static final int RECONCILE_BATCH_SIZE = 200;
+    // Far more distinct terms than any extracted document has; a larger count means a misread record
+    private static final int MAX_TERMS_PER_DOCUMENT = 1_000_000;
+
+    private final DocumentFileRepository documentFileRepository;
+    private final DocumentTextExtractor textExtractor;
+    private final DocumentContentStore contentStore;
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<Long, IndexedDocument> documents = new ConcurrentHashMap<>();
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "document-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.search.index.dir:${user.dir}/search-index}")
+    private String indexDir;
+
+    @Value("${app.search.index.compact-after:1000}")
+    private int compactAfter;
+
+    // Only touched from the indexer thread (and from shutdown once the indexer has stopped)
+    private DataOutputStream journal;
+    private int journalEntries;
+
+    @Autowired
+    public DocumentSearchIndexService(DocumentFileRepository documentFileRepository,
+                                      DocumentTextExtractor textExtractor,
+                                      DocumentContentStore contentStore) {
+        this.documentFileRepository = documentFileRepository;
+        this.textExtractor = textExtractor;
+        this.contentStore = contentStore;
+    }
+
+    private static class IndexedDocument {
+        private final long id;
+        private final String fileName;
+        private final String fileType;
+        private final long fileSize;
+        private final String uploadedBy;
+        private final String snippet;
+        private final Map<String, Integer> terms;
+
+        IndexedDocument(long id, String fileName, String fileType, long fileSize, String uploadedBy,
+                        String snippet, Map<String, Integer> terms) {
+            this.id = id;
+            this.fileName = fileName;
+            this.fileType = fileType;
+            this.fileSize = fileSize;
+            this.uploadedBy = uploadedBy;
+            this.snippet = snippet;
+            this.terms = terms;
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            Files.createDirectories(Paths.get(indexDir));
+            readSnapshot();
+            if (!replayJournal()) {
+                // New records must not be appended after the partial one, so fold the journal into the snapshot
+                compact();
+                if (Files.exists(journalPath())) {
+                    throw new IOException("Could not replace the torn search index journal");
+                }
+            }
+            logger.info("Document search index loaded: {} documents, {} terms", index.size(), index.termCount());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not load document search index from {}, it will be rebuilt", indexDir, e);
+            index.clear();
+            documents.clear();
+            journalEntries = 0;
+            discardFiles();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        submit(this::reconcileWithDatabase);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdown();
+        try {
+            if (indexer.awaitTermination(10, TimeUnit.SECONDS)) {
+                compact();
+                closeJournal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void indexAsync(DocumentFile file) {
+        afterCommit(() -> submit(() -> indexDocument(file)));
+    }
+
+    public void removeAsync(Long id) {
+        afterCommit(() -> submit(() -> removeDocument(id)));
+    }
+
+    public List<DocumentSearchResultDTO> search(String query, int limit) {
+        List<String> terms = InvertedIndex.tokenize(query);
+        List<DocumentSearchResultDTO> results = new ArrayList<>();
+        for (InvertedIndex.Hit hit : index.search(terms, true, null, limit)) {
+            IndexedDocument document = documents.get(hit.getDocId());
+            if (document == null) {
+                continue;
+            }
+            DocumentSearchResultDTO dto = new DocumentSearchResultDTO();
+            dto.setId(document.id);
+            dto.setFileName(document.fileName);
+            dto.setFileType(document.fileType);
+            dto.setFileSize(document.fileSize);
+            dto.setUploadedBy(document.uploadedBy);
+            dto.setSnippet(document.snippet);
+            dto.setScore(hit.getScore());
+            results.add(dto);
+        }
+        return results;
+    }
+
+    private void submit(Runnable task) {
+        indexer.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Document indexing task failed", e);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private void reconcileWithDatabase() {
+        Set<Long> databaseIds = new HashSet<>(documentFileRepository.findAllIds());
+        int removed = 0;
+        for (Long indexedId : index.documentIds()) {
+            if (!databaseIds.contains(indexedId)) {
+                removeDocument(indexedId);
+                removed++;
+            }
+        }
+        List<Long> missing = new ArrayList<>();
+        for (Long id : databaseIds) {
+            if (!index.contains(id)) {
+                missing.add(id);
+            }
+        }
+        Collections.sort(missing);
+        int added = 0;
+        for (int from = 0; from < missing.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = missing.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, missing.size()));
+            for (DocumentFileRepository.IndexedFileSummary summary : documentFileRepository.findIndexedSummaries(batch)) {
+                indexDocument(toFile(summary));
+                added++;
+            }
+        }
+        if (added > 0 || removed > 0) {
+            logger.info("Document search index reconciled: {} added, {} removed", added, removed);
+        }
+    }
+
+    // Metadata only; content is streamed from the content store when indexed
+    private static DocumentFile toFile(DocumentFileRepository.IndexedFileSummary summary) {
+        DocumentFile file = new DocumentFile();
+        file.setId(summary.getId());
+        file.setFileName(summary.getFileName());
+        file.setFileType(summary.getFileType());
+        file.setFileSize(summary.getFileSize());
+        file.setUploadedBy(summary.getUploadedBy());
+        file.setDescription(summary.getDescription());
+        file.setStoragePath(summary.getStoragePath());
+        return file;
+    }
+
+    private void indexDocument(DocumentFile file) {
+        String text = "";
+        if (textExtractor.isSupported(file.getFileName(), file.getFileType())) {
+            if (file.getStoragePath() == null && file.getFileData() == null) {
+                // Not migrated to the content store yet, so the content is still in the BLOB column
+                file = documentFileRepository.findById(file.getId()).orElse(file);
+            }
+            try (InputStream content = contentStore.open(file)) {
+                text = textExtractor.extract(file.getFileName(), file.getFileType(), content);
+            } catch (IOException e) {
+                logger.warn("Could not read content of file ID: {}", file.getId(), e);
+            }
+        }
+
+        Map<String, Integer> terms = InvertedIndex.termFrequencies(text, 1);
+        InvertedIndex.addTermFrequencies(terms, file.getFileName(), FILE_NAME_WEIGHT);
+        InvertedIndex.addTermFrequencies(terms, file.getDescription(), 1);
+
+        IndexedDocument document = new IndexedDocument(
+                file.getId(),
+                nullToEmpty(file.getFileName()),
+                nullToEmpty(file.getFileType()),
+                file.getFileSize() != null ? file.getFileSize() : 0L,
+                nullToEmpty(file.getUploadedBy()),
+                snippet(text),
+                terms);
+        apply(document);
+        appendToJournal(document);
+        logger.debug("Indexed file ID: {} ({} distinct terms)", file.getId(), terms.size());
+    }
+
+    private void removeDocument(Long id) {
+        if (documents.remove(id) == null) {
+            return;
+        }
+        index.remove(id);
+        try {
+            DataOutputStream out = openJournal();
+            out.writeByte(OP_REMOVE);
+            out.writeLong(id);
+            out.flush();
+            journalEntries++;
+        } catch (IOException e) {
+            logger.warn("Could not journal removal of file ID: {}", id, e);
+        }
+    }
+
+    private void apply(IndexedDocument document) {
+        documents.put(document.id, document);
+        index.put(document.id, document.terms);
+    }
+
+    // --- Persistence ---
+
+    private Path snapshotPath() {
+        return Paths.get(indexDir, "documents.snapshot");
+    }
+
+    private Path journalPath() {
+        return Paths.get(indexDir, "documents.journal");
+    }
+
+    private void appendToJournal(IndexedDocument document) {
+        try {
+            DataOutputStream out = openJournal();
+            out.writeByte(OP_ADD);
+            writeDocument(out, document);
+            out.flush();
+            journalEntries++;
+            if (journalEntries >= compactAfter) {
+                compact();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not journal file ID: {}", document.id, e);
+        }
+    }
+
+    private DataOutputStream openJournal() throws IOException {
+        if (journal == null) {
+            journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        }
+        return journal;
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.warn("Could not close search index journal", e);
+            }
+            journal = null;
+        }
+    }
+
+    private void compact() {
+        Path temp = Paths.get(indexDir, "documents.snapshot.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            List<IndexedDocument> snapshot = new ArrayList<>(documents.values());
+            out.writeInt(snapshot.size());
+            for (IndexedDocument document : snapshot) {
+                writeDocument(out, document);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write search index snapshot", e);
+            return;
+        }
+        try {
+            Files.move(temp, snapshotPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            closeJournal();
+            Files.deleteIfExists(journalPath());
+            journalEntries = 0;
+            logger.info("Search index snapshot written: {} documents", documents.size());
+        } catch (IOException e) {
+            logger.warn("Could not replace search index snapshot", e);
+        }
+    }
+
+    // Unreadable files would fail the next start too, and new records must not follow them
+    private void discardFiles() {
+        try {
+            Files.deleteIfExists(journalPath());
+            Files.deleteIfExists(snapshotPath());
+        } catch (IOException e) {
+            logger.warn("Could not discard search index files in {}", indexDir, e);
+        }
+    }
+
+    private void readSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath())) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath())))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Unrecognised search index snapshot format");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                apply(readDocument(in));
+            }
+        }
+    }
+
+    /**
+     * Applies the journal to the loaded snapshot. Returns false if it ended in a torn record.
+     */
+    private boolean replayJournal() throws IOException {
+        if (!Files.exists(journalPath())) {
+            return true;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath())))) {
+            while (true) {
+                int op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return true;
+                }
+                try {
+                    if (op == OP_ADD) {
+                        apply(readDocument(in));
+                    } else if (op == OP_REMOVE) {
+                        long id = in.readLong();
+                        documents.remove(id);
+                        index.remove(id);
+                    } else {
+                        throw new IOException("Corrupt search index journal");
+                    }
+                    journalEntries++;
+                } catch (EOFException e) {
+                    // Torn final record from an unclean shutdown; reconciliation re-indexes it
+                    logger.warn("Search index journal ends in a partial record after {} entries", journalEntries);
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void writeDocument(DataOutputStream out, IndexedDocument document) throws IOException {
+        out.writeLong(document.id);
+        out.writeUTF(document.fileName);
+        out.writeUTF(document.fileType);
+        out.writeLong(document.fileSize);
+        out.writeUTF(document.uploadedBy);
+        out.writeUTF(document.snippet);
+        out.writeInt(document.terms.size());
+        for (Map.Entry<String, Integer> term : document.terms.entrySet()) {
+            out.writeUTF(term.getKey());
+            out.writeInt(term.getValue());
+        }
+    }
+
+    private IndexedDocument readDocument(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        String fileName = in.readUTF();
+        String fileType = in.readUTF();
+        long fileSize = in.readLong();
+        String uploadedBy = in.readUTF();
+        String snippet = in.readUTF();
+        int termCount = in.readInt();
+        if (termCount < 0 || termCount > MAX_TERMS_PER_DOCUMENT) {
+            throw new IOException("Corrupt search index record for file ID: " + id);
+        }
+        Map<String, Integer> terms = new HashMap<>(termCount * 2);
+        for (int i = 0; i < termCount; i++) {
+            terms.put(in.readUTF(), in.readInt());
+        }
+        return new IndexedDocument(id, fileName, fileType, fileSize, uploadedBy, snippet, terms);
+    }
+
+    private static String snippet(String text) {
+        String head = text.length() > SNIPPET_LENGTH * 4 ? text.substring(0, SNIPPET_LENGTH * 4) : text;
+        String collapsed = head.replaceAll("\\s+", " ").trim();
+        return collapsed.length() > SNIPPET_LENGTH ? collapsed.substring(0, SNIPPET_LENGTH) + "..." : collapsed;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,95 @@
+package com.ssid.collegeportal.service;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+@Service
+public class DocumentTextExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentTextExtractor.class);
+
+    private static final Set<String> TEXT_EXTENSIONS = Set.of("txt", "md", "csv", "json", "xml", "html", "htm", "java", "py", "c", "cpp", "sql");
+
+    @Value("${app.search.max-extract-chars:1000000}")
+    private int maxExtractChars;
+
+    public boolean isSupported(String fileName, String contentType) {
+        return isPdf(fileName, contentType) || isPlainText(fileName, contentType);
+    }
+
+    /**
+     * Extracts searchable text from a PDF or plain-text document. Unsupported formats and
+     * unreadable files yield an empty string so that the file name can still be indexed.
+     */
+    public String extract(String fileName, String contentType, InputStream content) {
+        try {
+            if (isPdf(fileName, contentType)) {
+                return extractPdf(content);
+            }
+            if (isPlainText(fileName, contentType)) {
+                return extractPlainText(content);
+            }
+        } catch (Exception e) {
+            logger.warn("Text extraction failed for file: {}", fileName, e);
+        }
+        return "";
+    }
+
+    private String extractPdf(InputStream content) throws IOException {
+        PdfReader reader = new PdfReader(content);
+        try {
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= reader.getNumberOfPages() && text.length() < maxExtractChars; page++) {
+                text.append(PdfTextExtractor.getTextFromPage(reader, page)).append('\n');
+            }
+            return text.length() > maxExtractChars ? text.substring(0, maxExtractChars) : text.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private String extractPlainText(InputStream content) throws IOException {
+        Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8);
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while (text.length() < maxExtractChars && (read = reader.read(buffer)) != -1) {
+            text.append(buffer, 0, Math.min(read, maxExtractChars - text.length()));
+        }
+        return text.toString();
+    }
+
+    private boolean isPdf(String fileName, String contentType) {
+        return "application/pdf".equalsIgnoreCase(contentType) || "pdf".equals(extension(fileName));
+    }
+
+    private boolean isPlainText(String fileName, String contentType) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/") || type.equals("application/json") || type.equals("application/xml")) {
+                return true;
+            }
+        }
+        return TEXT_EXTENSIONS.contains(extension(fileName));
+    }
+
+    private String extension(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
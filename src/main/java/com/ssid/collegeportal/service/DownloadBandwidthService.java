@@ -0,0 +1,322 @@
+package com.ssid.collegeportal.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte-level token-bucket shaping for file downloads, per user and across all users.
+ *
+ * Throttling happens inline on the thread that is already writing the response: each read
+ * takes tokens from both buckets and, if either is in debt, sleeps until it is repaid. No
+ * extra threads or timers are needed per download. Because a throttled download holds its
+ * request thread for the whole transfer, each user may only run a few at once; further ones
+ * are refused with {@link TooManyDownloadsException} instead of tying up more threads.
+ */
+@Service
+public class DownloadBandwidthService {
+
+    private static final int MAX_CHUNK_BYTES = 64 * 1024;
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    @Value("${app.download.rate.global-bytes-per-second:52428800}")
+    private long globalBytesPerSecond;
+
+    @Value("${app.download.rate.student-bytes-per-second:2097152}")
+    private long studentBytesPerSecond;
+
+    @Value("${app.download.rate.faculty-bytes-per-second:8388608}")
+    private long facultyBytesPerSecond;
+
+    @Value("${app.download.rate.admin-bytes-per-second:0}")
+    private long adminBytesPerSecond;
+
+    @Value("${app.download.rate.burst-seconds:2}")
+    private double burstSeconds;
+
+    @Value("${app.download.max-concurrent-per-user:3}")
+    private int maxConcurrentPerUser;
+
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    // User -> throttled downloads in progress; entries are removed when they drop to zero
+    private final Map<String, Integer> activeDownloads = new ConcurrentHashMap<>();
+    private volatile TokenBucket globalBucket;
+
+    private final AtomicLong bytesServed = new AtomicLong();
+    private final AtomicLong throttledReads = new AtomicLong();
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private final AtomicLong rejectedDownloads = new AtomicLong();
+    private final Map<String, AtomicLong> throttledNanosByRole = new ConcurrentHashMap<>();
+
+    static class TokenBucket {
+        private final double bytesPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+        private long lastUsed;
+
+        TokenBucket(long bytesPerSecond, double burstSeconds) {
+            this.bytesPerNano = bytesPerSecond / 1_000_000_000.0;
+            this.capacity = Math.max(bytesPerSecond * burstSeconds, MAX_CHUNK_BYTES);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+            this.lastUsed = lastRefill;
+        }
+
+        /**
+         * Takes the bytes immediately and returns how long the caller must wait for the
+         * bucket to get out of debt.
+         */
+        synchronized long reserve(long bytes) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * bytesPerNano);
+            lastRefill = now;
+            lastUsed = now;
+            tokens -= bytes;
+            return tokens >= 0 ? 0 : (long) (-tokens / bytesPerNano);
+        }
+
+        synchronized boolean isIdle(long now) {
+            return now - lastUsed > IDLE_BUCKET_NANOS;
+        }
+    }
+
+    public static class TooManyDownloadsException extends RuntimeException {
+        TooManyDownloadsException() {
+            super("Too many downloads in progress, try again when one has finished");
+        }
+    }
+
+    /**
+     * One download slot of a user. Every stream throttled with it shares the slot, so a download
+     * made of several files (a note bundle) counts once. Closing it frees the slot.
+     */
+    public class Permit implements AutoCloseable {
+        private final String user;
+        private final String role;
+        private final TokenBucket userBucket;
+        private boolean released;
+
+        private Permit(String user, String role, TokenBucket userBucket) {
+            this.user = user;
+            this.role = role;
+            this.userBucket = userBucket;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (released || user == null) {
+                return;
+            }
+            released = true;
+            activeDownloads.computeIfPresent(user, (name, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Takes one of the user's download slots. Users without a per-user rate are not limited.
+     */
+    public Permit acquire(Authentication authentication) {
+        String role = primaryRole(authentication);
+        long userRate = rateFor(role);
+        if (userRate <= 0 || authentication == null) {
+            return new Permit(null, role, null);
+        }
+        String user = authentication.getName();
+        boolean[] granted = new boolean[1];
+        activeDownloads.compute(user, (name, count) -> {
+            int current = count != null ? count : 0;
+            if (maxConcurrentPerUser > 0 && current >= maxConcurrentPerUser) {
+                return count;
+            }
+            granted[0] = true;
+            return current + 1;
+        });
+        if (!granted[0]) {
+            rejectedDownloads.incrementAndGet();
+            throw new TooManyDownloadsException();
+        }
+        return new Permit(user, role, userBuckets.computeIfAbsent(user, name -> new TokenBucket(userRate, burstSeconds)));
+    }
+
+    /**
+     * Throttles a single download; its slot is freed when the returned stream is closed. The
+     * content is closed if no slot is available.
+     */
+    public InputStream throttle(InputStream content, Authentication authentication) throws IOException {
+        Permit permit;
+        try {
+            permit = acquire(authentication);
+        } catch (TooManyDownloadsException e) {
+            content.close();
+            throw e;
+        }
+        return new ThrottledInputStream(content, permit, true);
+    }
+
+    /**
+     * Throttles one part of a download that already holds a slot; closing the stream keeps it.
+     */
+    public InputStream throttle(InputStream content, Permit permit) {
+        return new ThrottledInputStream(content, permit, false);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bytesServed", bytesServed.get());
+        stats.put("throttledReads", throttledReads.get());
+        stats.put("throttledMillis", TimeUnit.NANOSECONDS.toMillis(throttledNanos.get()));
+        Map<String, Long> byRole = new LinkedHashMap<>();
+        throttledNanosByRole.forEach((role, nanos) -> byRole.put(role, TimeUnit.NANOSECONDS.toMillis(nanos.get())));
+        stats.put("throttledMillisByRole", byRole);
+        stats.put("activeUserBuckets", userBuckets.size());
+        stats.put("activeDownloads", activeDownloads.values().stream().mapToInt(Integer::intValue).sum());
+        stats.put("rejectedDownloads", rejectedDownloads.get());
+        stats.put("maxConcurrentPerUser", maxConcurrentPerUser);
+        stats.put("globalBytesPerSecond", globalBytesPerSecond);
+        stats.put("studentBytesPerSecond", studentBytesPerSecond);
+        stats.put("facultyBytesPerSecond", facultyBytesPerSecond);
+        stats.put("adminBytesPerSecond", adminBytesPerSecond);
+        return stats;
+    }
+
+    @Scheduled(fixedDelay = 600000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        userBuckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+    }
+
+    private TokenBucket globalBucket() {
+        if (globalBytesPerSecond <= 0) {
+            return null;
+        }
+        TokenBucket bucket = globalBucket;
+        if (bucket == null) {
+            synchronized (this) {
+                if (globalBucket == null) {
+                    globalBucket = new TokenBucket(globalBytesPerSecond, burstSeconds);
+                }
+                bucket = globalBucket;
+            }
+        }
+        return bucket;
+    }
+
+    private String primaryRole(Authentication authentication) {
+        if (authentication == null) {
+            return "STUDENT";
+        }
+        String role = "STUDENT";
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if ("ROLE_ADMIN".equals(name)) {
+                return "ADMIN";
+            }
+            if ("ROLE_FACULTY".equals(name)) {
+                role = "FACULTY";
+            }
+        }
+        return role;
+    }
+
+    private long rateFor(String role) {
+        switch (role) {
+            case "ADMIN":
+                return adminBytesPerSecond;
+            case "FACULTY":
+                return facultyBytesPerSecond;
+            default:
+                return studentBytesPerSecond;
+        }
+    }
+
+    private class ThrottledInputStream extends FilterInputStream {
+        private final Permit permit;
+        private final boolean ownsPermit;
+        private final TokenBucket userBucket;
+        private final TokenBucket globalBucket;
+        private final String role;
+
+        ThrottledInputStream(InputStream in, Permit permit, boolean ownsPermit) {
+            super(in);
+            this.permit = permit;
+            this.ownsPermit = ownsPermit;
+            this.userBucket = permit.userBucket;
+            this.globalBucket = globalBucket();
+            this.role = permit.role;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (ownsPermit) {
+                    permit.close();
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                acquire(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int count = super.read(buffer, off, Math.min(len, MAX_CHUNK_BYTES));
+            if (count > 0) {
+                acquire(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, MAX_CHUNK_BYTES));
+            if (skipped > 0) {
+                acquire(skipped);
+            }
+            return skipped;
+        }
+
+        private void acquire(long bytes) throws IOException {
+            bytesServed.addAndGet(bytes);
+            long waitNanos = 0;
+            if (userBucket != null) {
+                waitNanos = userBucket.reserve(bytes);
+            }
+            if (globalBucket != null) {
+                waitNanos = Math.max(waitNanos, globalBucket.reserve(bytes));
+            }
+            if (waitNanos <= 0) {
+                return;
+            }
+            throttledReads.incrementAndGet();
+            throttledNanos.addAndGet(waitNanos);
+            throttledNanosByRole.computeIfAbsent(role, r -> new AtomicLong()).addAndGet(waitNanos);
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling download");
+            }
+        }
+    }
+}
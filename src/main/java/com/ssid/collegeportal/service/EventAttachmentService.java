@@ -0,0 +1,278 @@
+package com.ssid.collegeportal.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores and serves event attachments from {@code app.upload.dir}.
+ *
+ * Small files are kept in a byte-bounded LRU so that a popular poster is read from disk once;
+ * anything larger is streamed straight from the file system.
+ */
+@Service
+public class EventAttachmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventAttachmentService.class);
+
+    private static final int MAX_CONTENT_TYPE_ENTRIES = 10_000;
+
+    @Value("${app.upload.dir:${user.dir}/uploads}")
+    private String uploadDir;
+
+    @Value("${app.events.attachment-cache.max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    @Value("${app.events.attachment-cache.max-file-bytes:1048576}")
+    private long cacheMaxFileBytes;
+
+    private final LinkedHashMap<String, CachedFile> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CachedContentType> contentTypes = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong streamed = new AtomicLong();
+    private long cachedBytes;
+
+    public static class Attachment {
+        private final String fileName;
+        private final String contentType;
+        private final long size;
+        private final long lastModified;
+        private final Resource resource;
+
+        Attachment(String fileName, String contentType, long size, long lastModified, Resource resource) {
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.resource = resource;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getETag() {
+            return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+
+        public Resource getResource() {
+            return resource;
+        }
+    }
+
+    private static class CachedFile {
+        private final long size;
+        private final long lastModified;
+        private final byte[] data;
+
+        CachedFile(long size, long lastModified, byte[] data) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.data = data;
+        }
+    }
+
+    private static class CachedContentType {
+        private final long lastModified;
+        private final String contentType;
+
+        CachedContentType(long lastModified, String contentType) {
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+        }
+    }
+
+    public String store(MultipartFile file) {
+        try {
+            Path dir = Paths.get(uploadDir);
+            Files.createDirectories(dir);
+            String filename = System.currentTimeMillis() + "_" + StringUtils.cleanPath(file.getOriginalFilename());
+            Path targetPath = resolve(filename);
+            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            return filename;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store attachment", e);
+        }
+    }
+
+    public Optional<Attachment> open(String attachmentPath) {
+        Path path;
+        BasicFileAttributes attributes;
+        try {
+            path = resolve(attachmentPath);
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+        if (!attributes.isRegularFile()) {
+            return Optional.empty();
+        }
+        long size = attributes.size();
+        // HTTP dates have second precision, so compare and emit at that granularity
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String contentType = contentType(attachmentPath, path, lastModified);
+        String downloadName = attachmentPath.replaceFirst("^\\d+_", "");
+
+        if (size > cacheMaxFileBytes) {
+            streamed.incrementAndGet();
+            return Optional.of(new Attachment(downloadName, contentType, size, lastModified, new FileSystemResource(path)));
+        }
+
+        byte[] data = cachedData(attachmentPath, size, lastModified);
+        if (data == null) {
+            try {
+                data = Files.readAllBytes(path);
+            } catch (IOException e) {
+                logger.warn("Could not read event attachment: {}", attachmentPath, e);
+                return Optional.empty();
+            }
+            cacheData(attachmentPath, size, lastModified, data);
+        }
+        return Optional.of(new Attachment(downloadName, contentType, size, lastModified, new ByteArrayResource(data)));
+    }
+
+    public Path getUploadDirectory() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    public boolean delete(String attachmentPath) {
+        try {
+            Path path = resolve(attachmentPath);
+            evict(attachmentPath);
+            return Files.deleteIfExists(path);
+        } catch (IllegalArgumentException | IOException e) {
+            logger.warn("Could not delete event attachment: {}", attachmentPath, e);
+            return false;
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.get());
+        stats.put("streamedUncached", streamed.get());
+        synchronized (cache) {
+            stats.put("entries", cache.size());
+            stats.put("cachedBytes", cachedBytes);
+        }
+        stats.put("maxBytes", cacheMaxBytes);
+        stats.put("maxFileBytes", cacheMaxFileBytes);
+        return stats;
+    }
+
+    private Path resolve(String attachmentPath) {
+        Path base = getUploadDirectory();
+        Path path = base.resolve(attachmentPath).normalize();
+        if (!path.startsWith(base)) {
+            throw new IllegalArgumentException("Attachment path escapes the upload directory: " + attachmentPath);
+        }
+        return path;
+    }
+
+    private byte[] cachedData(String key, long size, long lastModified) {
+        synchronized (cache) {
+            CachedFile cached = cache.get(key);
+            if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+                hits.incrementAndGet();
+                return cached.data;
+            }
+            if (cached != null) {
+                // File was replaced on disk since it was cached
+                cache.remove(key);
+                cachedBytes -= cached.size;
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    private void evict(String key) {
+        synchronized (cache) {
+            CachedFile cached = cache.remove(key);
+            if (cached != null) {
+                cachedBytes -= cached.size;
+            }
+        }
+        contentTypes.remove(key);
+    }
+
+    private void cacheData(String key, long size, long lastModified, byte[] data) {
+        synchronized (cache) {
+            CachedFile previous = cache.put(key, new CachedFile(size, lastModified, data));
+            if (previous != null) {
+                cachedBytes -= previous.size;
+            }
+            cachedBytes += size;
+            Iterator<Map.Entry<String, CachedFile>> eldest = cache.entrySet().iterator();
+            while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+                CachedFile evicted = eldest.next().getValue();
+                eldest.remove();
+                cachedBytes -= evicted.size;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private String contentType(String key, Path path, long lastModified) {
+        CachedContentType cached = contentTypes.get(key);
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.contentType;
+        }
+        String contentType = null;
+        try {
+            contentType = Files.probeContentType(path);
+        } catch (IOException e) {
+            logger.debug("Content type probe failed for: {}", key, e);
+        }
+        if (contentType == null) {
+            contentType = URLConnection.guessContentTypeFromName(key);
+        }
+        if (contentType == null) {
+            contentType = "application/octet-stream";
+        }
+        if (contentTypes.size() >= MAX_CONTENT_TYPE_ENTRIES) {
+            contentTypes.clear();
+        }
+        contentTypes.put(key, new CachedContentType(lastModified, contentType));
+        return contentType;
+    }
+}
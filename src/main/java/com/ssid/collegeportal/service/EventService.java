@@ -3,6 +3,8 @@ package com.ssid.collegeportal.service;
 import com.ssid.collegeportal.dto.EventRequestDTO;
 import com.ssid.collegeportal.model.Event;
 import com.ssid.collegeportal.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,8 +13,12 @@ import java.util.Optional;
 
 @Service
 public class EventService {
+    private static final Logger logger = LoggerFactory.getLogger(EventService.class);
+
     @Autowired
     private EventRepository eventRepository;
+    @Autowired
+    private EventAttachmentService eventAttachmentService;
 
     public List<Event> getAllEvents() {
         return eventRepository.findAll();
@@ -38,11 +44,33 @@ public class EventService {
         event.setDescription(dto.getDescription());
         event.setEventDate(dto.getEventDate());
         event.setLocation(dto.getLocation());
-        event.setAttachmentPath(dto.getAttachmentPath());
-        return eventRepository.save(event);
+        // Keep the current attachment unless a new one was uploaded
+        String previousAttachment = event.getAttachmentPath();
+        if (dto.getAttachmentPath() != null) {
+            event.setAttachmentPath(dto.getAttachmentPath());
+        }
+        Event saved = eventRepository.save(event);
+        if (previousAttachment != null && !previousAttachment.equals(saved.getAttachmentPath())) {
+            deleteAttachment(previousAttachment);
+        }
+        return saved;
     }
 
     public void deleteEvent(Long id) {
+        String attachmentPath = eventRepository.findById(id).map(Event::getAttachmentPath).orElse(null);
         eventRepository.deleteById(id);
+        if (attachmentPath != null) {
+            deleteAttachment(attachmentPath);
+        }
+    }
+
+    private void deleteAttachment(String attachmentPath) {
+        // Another event may have been pointed at the same file
+        if (eventRepository.existsByAttachmentPath(attachmentPath)) {
+            return;
+        }
+        if (eventAttachmentService.delete(attachmentPath)) {
+            logger.info("Deleted event attachment: {}", attachmentPath);
+        }
     }
 }
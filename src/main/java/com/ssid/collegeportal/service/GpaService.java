@@ -0,0 +1,295 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.GpaSummaryDTO;
+import com.ssid.collegeportal.dto.GpaTranscriptDTO;
+import com.ssid.collegeportal.dto.GradedResultDTO;
+import com.ssid.collegeportal.dto.SemesterGpaDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Semester GPA and cumulative CGPA on a 10-point scale, weighted by subject credits.
+ *
+ * Graded semesters are memoized per student. A result write only regrades the semester it
+ * belongs to, and the CGPA is summed from the per-semester totals on every read, so it never
+ * needs its own invalidation. Branch summaries read all results of the branch in one query
+ * and grade the students missing from the cache in parallel.
+ */
+@Service
+public class GpaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GpaService.class);
+
+    // Lowest marks for each grade, best first; anything below the last one fails
+    private static final double[] GRADE_FLOORS = {90, 80, 70, 60, 50, 45, 40};
+    private static final String[] GRADES = {"O", "A+", "A", "B+", "B", "C", "P"};
+    private static final int[] GRADE_POINTS = {10, 9, 8, 7, 6, 5, 4};
+    private static final String FAIL = "F";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.results.gpa.default-credits:3}")
+    private int defaultCredits;
+
+    private final LoadingLruCache<Long, StudentGrades> cache;
+    // Lower-cased subject name -> credits, loaded on first use
+    private volatile Map<String, Integer> credits;
+
+    public GpaService(@Value("${app.results.gpa-cache.max-entries:20000}") int maxEntries) {
+        this.cache = new LoadingLruCache<>(maxEntries);
+    }
+
+    private static class Graded {
+        private final String subject;
+        private final double marks;
+        private final int credits;
+        private final String grade;
+        private final int points;
+
+        Graded(String subject, double marks, int credits) {
+            this.subject = subject;
+            this.marks = marks;
+            this.credits = credits;
+            int index = 0;
+            while (index < GRADE_FLOORS.length && marks < GRADE_FLOORS[index]) {
+                index++;
+            }
+            this.grade = index < GRADES.length ? GRADES[index] : FAIL;
+            this.points = index < GRADE_POINTS.length ? GRADE_POINTS[index] : 0;
+        }
+    }
+
+    private static class SemesterGrades {
+        private final int semester;
+        private final List<Graded> results;
+        private final int credits;
+        private final int earnedCredits;
+        private final long weightedPoints;
+
+        SemesterGrades(int semester, List<Graded> results) {
+            this.semester = semester;
+            this.results = results;
+            int attempted = 0;
+            int earned = 0;
+            long weighted = 0;
+            for (Graded graded : results) {
+                attempted += graded.credits;
+                earned += graded.points > 0 ? graded.credits : 0;
+                weighted += (long) graded.points * graded.credits;
+            }
+            this.credits = attempted;
+            this.earnedCredits = earned;
+            this.weightedPoints = weighted;
+        }
+
+        double gpa() {
+            return credits == 0 ? 0.0 : round((double) weightedPoints / credits);
+        }
+    }
+
+    private static class StudentGrades {
+        private final NavigableMap<Integer, SemesterGrades> semesters = new ConcurrentSkipListMap<>();
+
+        int credits() {
+            return semesters.values().stream().mapToInt(semester -> semester.credits).sum();
+        }
+
+        int earnedCredits() {
+            return semesters.values().stream().mapToInt(semester -> semester.earnedCredits).sum();
+        }
+
+        double cgpa() {
+            int credits = credits();
+            long weighted = semesters.values().stream().mapToLong(semester -> semester.weightedPoints).sum();
+            return credits == 0 ? 0.0 : round((double) weighted / credits);
+        }
+    }
+
+    private static class StudentRow {
+        private final long id;
+        private final String name;
+        private final int semester;
+
+        StudentRow(long id, String name, int semester) {
+            this.id = id;
+            this.name = name;
+            this.semester = semester;
+        }
+    }
+
+    public GpaTranscriptDTO getTranscript(Long studentId) {
+        StudentGrades grades = cache.get(studentId, this::load);
+        GpaTranscriptDTO dto = new GpaTranscriptDTO();
+        dto.setStudentId(studentId);
+        for (SemesterGrades semester : grades.semesters.values()) {
+            SemesterGpaDTO semesterDto = new SemesterGpaDTO();
+            semesterDto.setSemester(semester.semester);
+            for (Graded graded : semester.results) {
+                GradedResultDTO result = new GradedResultDTO();
+                result.setSubject(graded.subject);
+                result.setMarks(graded.marks);
+                result.setCredits(graded.credits);
+                result.setGrade(graded.grade);
+                result.setGradePoints(graded.points);
+                semesterDto.getResults().add(result);
+            }
+            semesterDto.setCredits(semester.credits);
+            semesterDto.setEarnedCredits(semester.earnedCredits);
+            semesterDto.setSgpa(semester.gpa());
+            dto.getSemesters().add(semesterDto);
+        }
+        dto.setCredits(grades.credits());
+        dto.setEarnedCredits(grades.earnedCredits());
+        dto.setCgpa(grades.cgpa());
+        return dto;
+    }
+
+    /**
+     * SGPA of the current semester and CGPA of every student in a branch, for publishing
+     * official results. Students already cached are served from the cache.
+     */
+    public List<GpaSummaryDTO> getBranchSummaries(Long branchId) {
+        long start = System.currentTimeMillis();
+        List<StudentRow> students = jdbcTemplate.query(
+                "SELECT s.id, u.name, s.semester FROM student s LEFT JOIN users u ON u.id = s.user_id " +
+                "WHERE s.branch_id = ? ORDER BY u.name, s.id",
+                (rs, rowNum) -> new StudentRow(rs.getLong(1), rs.getString(2), rs.getInt(3)), branchId);
+        // Student -> semester -> subject -> marks, read once for the whole branch
+        Map<Long, Map<Integer, Map<String, Double>>> marks = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT r.student_id, r.semester, r.subject, r.marks FROM result r JOIN student s ON s.id = r.student_id " +
+                "WHERE s.branch_id = ? AND r.semester IS NOT NULL AND r.subject IS NOT NULL AND r.marks IS NOT NULL " +
+                "ORDER BY r.id",
+                rs -> {
+                    marks.computeIfAbsent(rs.getLong(1), id -> new TreeMap<>())
+                            .computeIfAbsent(rs.getInt(2), semester -> new LinkedHashMap<>())
+                            .put(rs.getString(3), rs.getDouble(4));
+                },
+                branchId);
+        Map<String, Integer> subjectCredits = credits();
+
+        List<GpaSummaryDTO> summaries = students.parallelStream().map(student -> {
+            StudentGrades grades = cache.get(student.id, id -> grade(marks.getOrDefault(id, Map.of()), subjectCredits));
+            GpaSummaryDTO dto = new GpaSummaryDTO();
+            dto.setStudentId(student.id);
+            dto.setStudentName(student.name);
+            dto.setSemester(student.semester);
+            SemesterGrades current = grades.semesters.get(student.semester);
+            dto.setSgpa(current != null ? current.gpa() : null);
+            dto.setCgpa(grades.cgpa());
+            dto.setCredits(grades.credits());
+            dto.setEarnedCredits(grades.earnedCredits());
+            return dto;
+        }).collect(Collectors.toList());
+        logger.info("Computed GPA of {} students of branch {} in {} ms", summaries.size(), branchId,
+                System.currentTimeMillis() - start);
+        return summaries;
+    }
+
+    /**
+     * Regrades one semester of a student after a result in it was written or deleted.
+     */
+    public void onResultChanged(Long studentId, Integer semester) {
+        if (studentId == null) {
+            return;
+        }
+        StudentGrades grades = cache.getIfPresent(studentId);
+        if (grades == null || semester == null) {
+            // Also keeps a load that is still running from caching what it read before the write
+            cache.invalidate(studentId);
+            return;
+        }
+        Map<String, Integer> subjectCredits = credits();
+        synchronized (grades) {
+            Map<String, Double> marks = new LinkedHashMap<>();
+            jdbcTemplate.query(
+                    "SELECT subject, marks FROM result WHERE student_id = ? AND semester = ? " +
+                    "AND subject IS NOT NULL AND marks IS NOT NULL ORDER BY id",
+                    rs -> {
+                        marks.put(rs.getString(1), rs.getDouble(2));
+                    },
+                    studentId, semester);
+            if (marks.isEmpty()) {
+                grades.semesters.remove(semester);
+            } else {
+                grades.semesters.put(semester, gradeSemester(semester, marks, subjectCredits));
+            }
+        }
+    }
+
+    public void invalidate(Long studentId) {
+        cache.invalidate(studentId);
+    }
+
+    /**
+     * Drops every memoized GPA and reloads subject credits, e.g. after credits were changed.
+     */
+    public void invalidateAll() {
+        credits = null;
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return cache.getStats();
+    }
+
+    private StudentGrades load(Long studentId) {
+        Map<Integer, Map<String, Double>> marks = new TreeMap<>();
+        // Ordered by id so that of duplicate results for a subject the latest wins
+        jdbcTemplate.query(
+                "SELECT semester, subject, marks FROM result WHERE student_id = ? " +
+                "AND semester IS NOT NULL AND subject IS NOT NULL AND marks IS NOT NULL ORDER BY id",
+                rs -> {
+                    marks.computeIfAbsent(rs.getInt(1), semester -> new LinkedHashMap<>())
+                            .put(rs.getString(2), rs.getDouble(3));
+                },
+                studentId);
+        return grade(marks, credits());
+    }
+
+    private StudentGrades grade(Map<Integer, Map<String, Double>> marks, Map<String, Integer> subjectCredits) {
+        StudentGrades grades = new StudentGrades();
+        marks.forEach((semester, subjects) -> grades.semesters.put(semester, gradeSemester(semester, subjects, subjectCredits)));
+        return grades;
+    }
+
+    private SemesterGrades gradeSemester(int semester, Map<String, Double> marks, Map<String, Integer> subjectCredits) {
+        List<Graded> results = new ArrayList<>(marks.size());
+        new TreeMap<>(marks).forEach((subject, mark) -> results.add(new Graded(subject, mark,
+                subjectCredits.getOrDefault(subject.strip().toLowerCase(Locale.ROOT), defaultCredits))));
+        return new SemesterGrades(semester, List.copyOf(results));
+    }
+
+    private Map<String, Integer> credits() {
+        Map<String, Integer> loaded = credits;
+        if (loaded == null) {
+            Map<String, Integer> subjects = new HashMap<>();
+            jdbcTemplate.query("SELECT name, credits FROM subject WHERE name IS NOT NULL AND credits IS NOT NULL", rs -> {
+                subjects.put(rs.getString(1).strip().toLowerCase(Locale.ROOT), Math.max(0, rs.getInt(2)));
+            });
+            loaded = Map.copyOf(subjects);
+            credits = loaded;
+        }
+        return loaded;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
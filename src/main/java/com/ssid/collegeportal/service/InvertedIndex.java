@@ -0,0 +1,265 @@
+package com.ssid.collegeportal.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index with BM25 ranking.
+ *
+ * The term dictionary is kept sorted so prefix queries can walk a contiguous key range.
+ * Documents are replaced as a whole, so callers never need to know what was indexed before.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "that", "the", "this", "to", "was", "were", "will", "with");
+
+    // term -> (docId -> term frequency)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // docId -> term frequencies of that document, needed to remove or replace it
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    public static class Hit {
+        private final long docId;
+        private final double score;
+
+        public Hit(long docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+
+        public long getDocId() {
+            return docId;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() < 2 || token.length() > MAX_TOKEN_LENGTH || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    public static Map<String, Integer> termFrequencies(String text, int weight) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTermFrequencies(frequencies, text, weight);
+        return frequencies;
+    }
+
+    public static void addTermFrequencies(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    public void put(long docId, Map<String, Integer> termFrequencies) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            Map<String, Integer> copy = new HashMap<>(termFrequencies);
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : copy.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(docId, entry.getValue());
+                length += entry.getValue();
+            }
+            documents.put(docId, copy);
+            documentLengths.put(docId, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long docId) {
+        lock.readLock().lock();
+        try {
+            return documents.containsKey(docId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Set<Long> documentIds() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(documents.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void forEachDocument(BiConsumer<Long, Map<String, Integer>> consumer) {
+        lock.readLock().lock();
+        try {
+            documents.forEach((docId, terms) -> consumer.accept(docId, Collections.unmodifiableMap(terms)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks documents for the given query terms. When {@code prefixLastTerm} is set, the last
+     * term also matches every indexed term starting with it, so "thermo" finds "thermodynamics".
+     */
+    public List<Hit> search(List<String> terms, boolean prefixLastTerm, LongPredicate filter, int limit) {
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documentCount;
+            Map<Long, Double> scores = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean prefix = prefixLastTerm && i == terms.size() - 1;
+                for (Map.Entry<String, Map<Long, Integer>> entry : matchingTerms(term, prefix).entrySet()) {
+                    Map<Long, Integer> docs = entry.getValue();
+                    double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                    for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+                        long docId = posting.getKey();
+                        if (filter != null && !filter.test(docId)) {
+                            continue;
+                        }
+                        int tf = posting.getValue();
+                        int length = documentLengths.getOrDefault(docId, 0);
+                        double score = idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / averageLength));
+                        scores.merge(docId, score, Double::sum);
+                    }
+                }
+            }
+            return topHits(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Map<Long, Integer>> matchingTerms(String term, boolean prefix) {
+        if (!prefix) {
+            Map<Long, Integer> docs = postings.get(term);
+            return docs != null ? Map.of(term, docs) : Map.of();
+        }
+        NavigableMap<String, Map<Long, Integer>> range = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+        Map<String, Map<Long, Integer>> matches = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> entry : range.entrySet()) {
+            if (matches.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            matches.put(entry.getKey(), entry.getValue());
+        }
+        return matches;
+    }
+
+    private static List<Hit> topHits(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Comparator.comparingDouble(Hit::getScore));
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < limit) {
+                heap.add(new Hit(entry.getKey(), entry.getValue()));
+            } else if (entry.getValue() > heap.peek().getScore()) {
+                heap.poll();
+                heap.add(new Hit(entry.getKey(), entry.getValue()));
+            }
+        }
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(Comparator.comparingDouble(Hit::getScore).reversed());
+        return hits;
+    }
+
+    private void removeInternal(long docId) {
+        Map<String, Integer> previous = documents.remove(docId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.keySet()) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(docId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        Integer length = documentLengths.remove(docId);
+        if (length != null) {
+            totalLength -= length;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ssid.collegeportal.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Size-bounded LRU cache that loads missing entries on demand.
+ *
+ * Concurrent misses on the same key share a single load, so a burst of requests for a cold
+ * key hits the database once. A key invalidated while its load is still running is not
+ * populated with that (possibly stale) result.
+ */
+public class LoadingLruCache<K, V> {
+
+    private final int maxEntries;
+    private final LinkedHashMap<K, V> entries;
+    private final Map<K, Load<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static class Load<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private boolean stale;
+    }
+
+    public LoadingLruCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        synchronized (entries) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits.incrementAndGet();
+                return value;
+            }
+        }
+        misses.incrementAndGet();
+
+        Load<V> load = new Load<>();
+        Load<V> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            loads.incrementAndGet();
+            V value = loader.apply(key);
+            if (value != null) {
+                put(key, value, load);
+            }
+            load.future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loadFailures.incrementAndGet();
+            load.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * The cached value without loading it or touching the statistics; null when absent.
+     */
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    public void invalidate(K key) {
+        // Marked under the entries lock so a finishing load cannot slip its result in afterwards
+        synchronized (entries) {
+            Load<V> load = inFlight.remove(key);
+            if (load != null) {
+                load.stale = true;
+            }
+            entries.remove(key);
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            inFlight.values().forEach(load -> load.stale = true);
+            inFlight.clear();
+            entries.clear();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("loads", loads.get());
+        stats.put("loadFailures", loadFailures.get());
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        return stats;
+    }
+
+    private void put(K key, V value, Load<V> load) {
+        synchronized (entries) {
+            if (load.stale) {
+                return;
+            }
+            entries.put(key, value);
+            Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static <V> V await(Load<V> load) {
+        try {
+            return load.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
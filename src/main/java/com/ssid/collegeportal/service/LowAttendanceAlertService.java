@@ -0,0 +1,262 @@
+package com.ssid.collegeportal.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nightly job that warns students whose attendance in their current semester has fallen below
+ * the threshold for their branch, and sends each branch's faculty a summary of those students.
+ *
+ * Students are read from the attendance rollup table in keyset-ordered chunks, so the job never
+ * touches individual attendance rows. A user who already received today's alert is skipped,
+ * which makes running the job again on the same day harmless.
+ */
+@Service
+public class LowAttendanceAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowAttendanceAlertService.class);
+
+    public static final String STUDENT_ALERT_TYPE = "ATTENDANCE_ALERT";
+    public static final String FACULTY_SUMMARY_TYPE = "ATTENDANCE_SUMMARY";
+
+    private static final String CHUNK_SQL =
+            "SELECT r.student_id, r.semester, r.branch_id, b.name AS branch_name, u.id AS user_id, u.name AS student_name, " +
+            "r.total, r.present " +
+            "FROM attendance_student_rollup r " +
+            "JOIN student s ON s.id = r.student_id AND s.semester = r.semester " +
+            "JOIN users u ON u.id = s.user_id " +
+            "LEFT JOIN branch b ON b.id = r.branch_id " +
+            "WHERE r.student_id > ? AND r.total >= ? AND r.present * 100 < r.total * ? " +
+            "ORDER BY r.student_id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Value("${app.attendance.alerts.threshold-percent:75}")
+    private double defaultThreshold;
+
+    // Overrides as "Branch=70" or "Branch:3=80", comma separated; branch names match case-insensitively
+    @Value("${app.attendance.alerts.thresholds:}")
+    private String thresholdOverrides;
+
+    @Value("${app.attendance.alerts.min-classes:10}")
+    private int minClasses;
+
+    @Value("${app.attendance.alerts.chunk-size:1000}")
+    private int chunkSize;
+
+    private final Map<String, Double> thresholds = new HashMap<>();
+    private final ReentrantLock running = new ReentrantLock();
+
+    private static class LowStudent {
+        private final long userId;
+        private final String name;
+        private final int semester;
+        private final Long branchId;
+        private final String branchName;
+        private final long total;
+        private final long present;
+        private final double threshold;
+
+        LowStudent(long userId, String name, int semester, Long branchId, String branchName,
+                   long total, long present, double threshold) {
+            this.userId = userId;
+            this.name = name;
+            this.semester = semester;
+            this.branchId = branchId;
+            this.branchName = branchName;
+            this.total = total;
+            this.present = present;
+            this.threshold = threshold;
+        }
+
+        double percentage() {
+            return present * 100.0 / total;
+        }
+    }
+
+    @PostConstruct
+    void parseThresholds() {
+        if (thresholdOverrides == null || thresholdOverrides.isBlank()) {
+            return;
+        }
+        for (String entry : thresholdOverrides.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalArgumentException("Invalid attendance alert threshold: " + entry);
+            }
+            thresholds.put(parts[0].strip().toLowerCase(Locale.ROOT), Double.parseDouble(parts[1].strip()));
+        }
+    }
+
+    @Scheduled(cron = "${app.attendance.alerts.cron:0 0 6 * * *}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (Exception e) {
+            logger.error("Low attendance alert job failed", e);
+        }
+    }
+
+    /**
+     * Runs the job once and reports what it did. Returns without doing anything if a run is
+     * already in progress.
+     */
+    public Map<String, Object> run() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        if (!running.tryLock()) {
+            report.put("skipped", "A run is already in progress");
+            return report;
+        }
+        try {
+            return runLocked(report);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private Map<String, Object> runLocked(Map<String, Object> report) {
+        long start = System.currentTimeMillis();
+        // The SQL pre-filters with the highest threshold in use; each row is then checked against its own
+        double maxThreshold = thresholds.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        maxThreshold = Math.max(maxThreshold, defaultThreshold);
+
+        Map<String, List<LowStudent>> byCohort = new LinkedHashMap<>();
+        long scanned = 0;
+        int studentAlerts = 0;
+        int alreadyAlerted = 0;
+        long lastStudentId = 0;
+        while (true) {
+            List<LowStudent> chunk = new ArrayList<>();
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(CHUNK_SQL,
+                    lastStudentId, Math.max(1, minClasses), maxThreshold, chunkSize);
+            for (Map<String, Object> row : rows) {
+                lastStudentId = ((Number) row.get("student_id")).longValue();
+                int semester = ((Number) row.get("semester")).intValue();
+                String branchName = (String) row.get("branch_name");
+                double threshold = thresholdFor(branchName, semester);
+                long total = ((Number) row.get("total")).longValue();
+                long present = ((Number) row.get("present")).longValue();
+                if (present * 100.0 >= total * threshold) {
+                    continue;
+                }
+                Number branchId = (Number) row.get("branch_id");
+                chunk.add(new LowStudent(((Number) row.get("user_id")).longValue(), (String) row.get("student_name"),
+                        semester, branchId != null ? branchId.longValue() : null, branchName, total, present, threshold));
+            }
+            scanned += rows.size();
+
+            List<Long> userIds = new ArrayList<>(chunk.size());
+            chunk.forEach(student -> userIds.add(student.userId));
+            Set<Long> notified = notificationService.findUsersNotifiedSince(userIds, STUDENT_ALERT_TYPE,
+                    LocalDate.now().atStartOfDay());
+            List<NotificationService.BulkNotification> alerts = new ArrayList<>();
+            for (LowStudent student : chunk) {
+                if (student.branchId != null) {
+                    byCohort.computeIfAbsent(student.branchId + "|" + student.semester, k -> new ArrayList<>()).add(student);
+                }
+                if (notified.contains(student.userId)) {
+                    alreadyAlerted++;
+                    continue;
+                }
+                alerts.add(new NotificationService.BulkNotification(student.userId, "Low attendance warning",
+                        String.format(Locale.ROOT, "Your attendance in semester %d is %.1f%% (%d of %d classes), below the required %.0f%%.",
+                                student.semester, student.percentage(), student.present, student.total, student.threshold)));
+            }
+            studentAlerts += notificationService.createNotificationsInBulk(alerts, STUDENT_ALERT_TYPE);
+
+            if (rows.size() < chunkSize) {
+                break;
+            }
+        }
+
+        int facultySummaries = notifyFaculty(byCohort);
+        long elapsed = System.currentTimeMillis() - start;
+        int below = byCohort.values().stream().mapToInt(List::size).sum();
+        logger.info("Low attendance alerts: {} candidate students, {} alerts sent, {} already alerted today, {} faculty summaries in {} ms",
+                scanned, studentAlerts, alreadyAlerted, facultySummaries, elapsed);
+
+        report.put("candidateStudents", scanned);
+        report.put("studentsBelowThreshold", below);
+        report.put("studentAlerts", studentAlerts);
+        report.put("alreadyAlertedToday", alreadyAlerted);
+        report.put("facultySummaries", facultySummaries);
+        report.put("elapsedMs", elapsed);
+        return report;
+    }
+
+    private int notifyFaculty(Map<String, List<LowStudent>> byCohort) {
+        if (byCohort.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<Long>> facultyByBranch = new HashMap<>();
+        jdbcTemplate.query("SELECT f.branch_id, f.user_id FROM faculty f WHERE f.branch_id IS NOT NULL AND f.user_id IS NOT NULL",
+                rs -> {
+                    facultyByBranch.computeIfAbsent(rs.getLong("branch_id"), k -> new ArrayList<>()).add(rs.getLong("user_id"));
+                });
+
+        List<Long> facultyUserIds = new ArrayList<>();
+        facultyByBranch.values().forEach(facultyUserIds::addAll);
+        Set<Long> notified = notificationService.findUsersNotifiedSince(facultyUserIds, FACULTY_SUMMARY_TYPE,
+                LocalDate.now().atStartOfDay());
+
+        List<NotificationService.BulkNotification> summaries = new ArrayList<>();
+        for (List<LowStudent> students : byCohort.values()) {
+            LowStudent first = students.get(0);
+            List<Long> recipients = facultyByBranch.getOrDefault(first.branchId, List.of());
+            if (recipients.isEmpty()) {
+                continue;
+            }
+            students.sort((a, b) -> Double.compare(a.percentage(), b.percentage()));
+            StringBuilder message = new StringBuilder();
+            message.append(students.size()).append(" student(s) in ").append(first.branchName)
+                    .append(" semester ").append(first.semester).append(" are below ")
+                    .append(String.format(Locale.ROOT, "%.0f%%", first.threshold)).append(" attendance: ");
+            for (int i = 0; i < students.size(); i++) {
+                LowStudent student = students.get(i);
+                message.append(i == 0 ? "" : ", ").append(student.name)
+                        .append(String.format(Locale.ROOT, " (%.0f%%)", student.percentage()));
+            }
+            String title = "Low attendance: " + first.branchName + " semester " + first.semester;
+            for (Long userId : recipients) {
+                if (!notified.contains(userId)) {
+                    summaries.add(new NotificationService.BulkNotification(userId, title, message.toString()));
+                }
+            }
+        }
+        return notificationService.createNotificationsInBulk(summaries, FACULTY_SUMMARY_TYPE);
+    }
+
+    private double thresholdFor(String branchName, int semester) {
+        if (branchName != null) {
+            String branch = branchName.toLowerCase(Locale.ROOT);
+            Double threshold = thresholds.get(branch + ":" + semester);
+            if (threshold == null) {
+                threshold = thresholds.get(branch);
+            }
+            if (threshold != null) {
+                return threshold;
+            }
+        }
+        return defaultThreshold;
+    }
+}
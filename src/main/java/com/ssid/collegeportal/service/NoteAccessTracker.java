@@ -0,0 +1,207 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.model.Note;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts note views and attachment downloads without writing to the database per access.
+ *
+ * Each cohort gets a Count-Min sketch plus a small set of its heaviest notes for the current
+ * interval. On flush only those heavy hitters are added to the daily note_access_stats rows,
+ * which keeps the table small; the long tail of rarely opened notes is never written.
+ */
+@Service
+public class NoteAccessTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteAccessTracker.class);
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 1024;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO note_access_stats (stat_date, note_id, branch_name, year, semester, views, downloads) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE views = views + VALUES(views), downloads = downloads + VALUES(downloads)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.notes.trending.heavy-hitters:32}")
+    private int heavyHitters;
+
+    // Swapped for an empty map on every flush so recording never waits on the database
+    private volatile Map<String, CohortCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+
+    public enum AccessType { VIEW, DOWNLOAD }
+
+    public static class NoteCount {
+        private final long noteId;
+        private final long views;
+        private final long downloads;
+
+        NoteCount(long noteId, long views, long downloads) {
+            this.noteId = noteId;
+            this.views = views;
+            this.downloads = downloads;
+        }
+
+        public long getNoteId() {
+            return noteId;
+        }
+
+        public long getViews() {
+            return views;
+        }
+
+        public long getDownloads() {
+            return downloads;
+        }
+    }
+
+    private static class CohortCounter {
+        private final String branchName;
+        private final Integer year;
+        private final Integer semester;
+        private final int capacity;
+        private final CountMinSketch views = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        private final CountMinSketch downloads = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        // noteId -> estimated views + downloads, at most `capacity` entries
+        private final Map<Long, Long> heaviest = new HashMap<>();
+
+        CohortCounter(String branchName, Integer year, Integer semester, int capacity) {
+            this.branchName = branchName;
+            this.year = year;
+            this.semester = semester;
+            this.capacity = capacity;
+        }
+
+        synchronized void record(long noteId, AccessType type) {
+            long viewCount = type == AccessType.VIEW ? views.add(noteId, 1) : views.estimate(noteId);
+            long downloadCount = type == AccessType.DOWNLOAD ? downloads.add(noteId, 1) : downloads.estimate(noteId);
+            long weight = viewCount + downloadCount;
+            if (heaviest.containsKey(noteId) || heaviest.size() < capacity) {
+                heaviest.put(noteId, weight);
+                return;
+            }
+            Map.Entry<Long, Long> lightest = null;
+            for (Map.Entry<Long, Long> entry : heaviest.entrySet()) {
+                if (lightest == null || entry.getValue() < lightest.getValue()) {
+                    lightest = entry;
+                }
+            }
+            if (lightest != null && weight > lightest.getValue()) {
+                heaviest.remove(lightest.getKey());
+                heaviest.put(noteId, weight);
+            }
+        }
+
+        synchronized List<NoteCount> snapshot() {
+            List<NoteCount> counts = new ArrayList<>(heaviest.size());
+            for (Long noteId : heaviest.keySet()) {
+                counts.add(new NoteCount(noteId, views.estimate(noteId), downloads.estimate(noteId)));
+            }
+            return counts;
+        }
+    }
+
+    public void recordView(Note note) {
+        record(note, AccessType.VIEW);
+    }
+
+    public void recordDownload(Note note) {
+        record(note, AccessType.DOWNLOAD);
+    }
+
+    /**
+     * Counts accumulated since the last flush for one cohort, heaviest notes only.
+     */
+    public List<NoteCount> pendingCounts(String branchName, Integer year, Integer semester) {
+        CohortCounter counter = counters.get(cohortKey(branchName, year, semester));
+        return counter != null ? counter.snapshot() : List.of();
+    }
+
+    /**
+     * Counts accumulated since the last flush across all cohorts.
+     */
+    public List<NoteCount> pendingCounts() {
+        List<NoteCount> counts = new ArrayList<>();
+        for (CohortCounter counter : counters.values()) {
+            counts.addAll(counter.snapshot());
+        }
+        return counts;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notes.trending.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        Map<String, CohortCounter> pending = counters;
+        if (pending.isEmpty()) {
+            return;
+        }
+        counters = new ConcurrentHashMap<>();
+
+        Date today = Date.valueOf(LocalDate.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (CohortCounter counter : pending.values()) {
+            for (NoteCount count : counter.snapshot()) {
+                rows.add(new Object[]{today, count.noteId, counter.branchName, counter.year, counter.semester,
+                        count.views, count.downloads});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            flushedRows.addAndGet(rows.size());
+            logger.debug("Flushed {} note access rows for {} cohorts", rows.size(), pending.size());
+        } catch (Exception e) {
+            // Counts are advisory; losing one interval is preferable to retrying forever
+            logger.warn("Could not flush {} note access rows", rows.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("recorded", recorded.get());
+        stats.put("flushedRows", flushedRows.get());
+        stats.put("pendingCohorts", counters.size());
+        stats.put("heavyHittersPerCohort", heavyHitters);
+        return stats;
+    }
+
+    private void record(Note note, AccessType type) {
+        if (note == null || note.getId() == null) {
+            return;
+        }
+        recorded.incrementAndGet();
+        String key = cohortKey(note.getBranchName(), note.getYear(), note.getSemester());
+        counters.computeIfAbsent(key, k -> new CohortCounter(note.getBranchName(), note.getYear(),
+                        note.getSemester(), Math.max(1, heavyHitters)))
+                .record(note.getId(), type);
+    }
+
+    private static String cohortKey(String branchName, Integer year, Integer semester) {
+        return branchName + "|" + year + "|" + semester;
+    }
+}
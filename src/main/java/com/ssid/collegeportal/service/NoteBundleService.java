@@ -0,0 +1,269 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.model.DocumentFile;
+import com.ssid.collegeportal.model.Note;
+import com.ssid.collegeportal.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds ZIP archives of every note in a cohort, attachments included.
+ *
+ * The archive is streamed to the client as it is produced and copied to disk at the same time.
+ * Its file name carries a hash of the notes it contains, so once written it is served as-is
+ * until a note in the cohort is added, changed or removed.
+ */
+@Service
+public class NoteBundleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteBundleService.class);
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    private final NoteRepository noteRepository;
+    private final DocumentFileService documentFileService;
+    private final DownloadBandwidthService downloadBandwidthService;
+
+    @Value("${app.notes.bundle.dir:${app.upload.dir:${user.dir}/uploads}/bundles}")
+    private String bundleDir;
+
+    @Autowired
+    public NoteBundleService(NoteRepository noteRepository,
+                             DocumentFileService documentFileService,
+                             DownloadBandwidthService downloadBandwidthService) {
+        this.noteRepository = noteRepository;
+        this.documentFileService = documentFileService;
+        this.downloadBandwidthService = downloadBandwidthService;
+    }
+
+    public static class Bundle {
+        private final String cohortPrefix;
+        private final String version;
+        private final List<Note> notes;
+
+        Bundle(String cohortPrefix, String version, List<Note> notes) {
+            this.cohortPrefix = cohortPrefix;
+            this.version = version;
+            this.notes = notes;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getETag() {
+            return "\"" + version + "\"";
+        }
+
+        public String getDownloadName() {
+            return cohortPrefix + ".zip";
+        }
+
+        public int getNoteCount() {
+            return notes.size();
+        }
+
+        String getCacheFileName() {
+            return cohortPrefix + "_" + version + ".zip";
+        }
+    }
+
+    public Bundle prepare(String branchName, Integer year, Integer semester) {
+        List<Note> notes = noteRepository.findByBranchNameAndYearAndSemester(branchName, year, semester, BY_ID);
+        String cohortPrefix = "notes_" + safeName(branchName) + "_y" + year + "_s" + semester;
+        return new Bundle(cohortPrefix, version(notes), notes);
+    }
+
+    /**
+     * Writes the bundle to {@code out}. A cached copy is replayed from disk; otherwise the archive
+     * is generated and, if the whole of it reached the client, kept for the next request.
+     */
+    public void writeTo(Bundle bundle, OutputStream out, DownloadBandwidthService.Permit permit) throws IOException {
+        Path dir = Paths.get(bundleDir);
+        Path cached = dir.resolve(bundle.getCacheFileName());
+        if (Files.isRegularFile(cached)) {
+            try (InputStream in = downloadBandwidthService.throttle(Files.newInputStream(cached), permit)) {
+                in.transferTo(out);
+            }
+            return;
+        }
+
+        Files.createDirectories(dir);
+        Path temp = dir.resolve(UUID.randomUUID() + ".tmp");
+        boolean complete = false;
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            ZipOutputStream zip = new ZipOutputStream(new TeeOutputStream(out, file));
+            // Most attachments are PDFs or images that are already compressed
+            zip.setLevel(Deflater.BEST_SPEED);
+            writeEntries(bundle, zip, permit);
+            // finish() rather than close(): the response stream belongs to the container
+            zip.finish();
+            zip.flush();
+            complete = true;
+        } finally {
+            if (complete) {
+                cache(temp, cached, bundle);
+            } else {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private void writeEntries(Bundle bundle, ZipOutputStream zip, DownloadBandwidthService.Permit permit) throws IOException {
+        Set<String> names = new HashSet<>();
+        for (Note note : bundle.notes) {
+            String folder = safeName(note.getSubject()) + "/";
+
+            zip.putNextEntry(new ZipEntry(uniqueName(names, folder + safeName(note.getTitle()) + ".txt")));
+            zip.write(noteText(note).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            Long fileId = note.getAttachmentFileId();
+            if (fileId == null) {
+                continue;
+            }
+            Optional<DocumentFile> attachment = documentFileService.getFile(fileId);
+            if (attachment.isEmpty()) {
+                logger.warn("Attachment file ID: {} of note ID: {} is missing, left out of bundle", fileId, note.getId());
+                continue;
+            }
+            DocumentFile file = attachment.get();
+            zip.putNextEntry(new ZipEntry(uniqueName(names, folder + safeName(file.getFileName()))));
+            try (InputStream content = downloadBandwidthService.throttle(documentFileService.openContent(file), permit)) {
+                content.transferTo(zip);
+            }
+            zip.closeEntry();
+        }
+    }
+
+    private void cache(Path temp, Path cached, Bundle bundle) {
+        try {
+            Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Cached note bundle {} ({} notes)", cached.getFileName(), bundle.getNoteCount());
+        } catch (IOException e) {
+            logger.warn("Could not cache note bundle {}", cached.getFileName(), e);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Left for the next cleanup
+            }
+            return;
+        }
+        String prefix = bundle.cohortPrefix + "_";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cached.getParent())) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(".zip") && !name.equals(bundle.getCacheFileName())) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not remove outdated bundles for {}", bundle.cohortPrefix, e);
+        }
+    }
+
+    private static String noteText(Note note) {
+        StringBuilder text = new StringBuilder();
+        text.append(note.getTitle()).append("\n");
+        text.append("Subject: ").append(note.getSubject()).append("\n");
+        if (note.getCreatedAt() != null) {
+            text.append("Created: ").append(note.getCreatedAt()).append("\n");
+        }
+        text.append("\n");
+        if (note.getContent() != null) {
+            text.append(note.getContent()).append("\n");
+        }
+        return text.toString();
+    }
+
+    // Anything that identifies what goes into the archive; a change to any note yields a new version
+    private static String version(List<Note> notes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Note note : notes) {
+                digest.update((note.getId() + ":" + note.getUpdatedAt() + ":" + note.getAttachmentFileId() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String uniqueName(Set<String> names, String name) {
+        if (names.add(name)) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > name.lastIndexOf('/') ? name.substring(0, dot) : name;
+        String extension = dot > name.lastIndexOf('/') ? name.substring(dot) : "";
+        for (int i = 2; ; i++) {
+            String candidate = base + " (" + i + ")" + extension;
+            if (names.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static String safeName(String value) {
+        if (value == null || value.isBlank()) {
+            return "untitled";
+        }
+        String cleaned = value.strip().replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]+", "_");
+        return cleaned.length() > 100 ? cleaned.substring(0, 100) : cleaned;
+    }
+
+    private static class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] buffer, int off, int len) throws IOException {
+            first.write(buffer, off, len);
+            second.write(buffer, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.NoteSearchResultDTO;
+import com.ssid.collegeportal.model.Note;
+import com.ssid.collegeportal.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text index over note titles, subjects and content.
+ *
+ * Everything a search result needs is held alongside the postings, so queries are answered
+ * from memory alone. The index is rebuilt from the database at startup and kept current by
+ * {@link NoteService} on every write.
+ */
+@Service
+public class NoteSearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteSearchIndexService.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int SUBJECT_WEIGHT = 2;
+    private static final int SNIPPET_LENGTH = 300;
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private final NoteRepository noteRepository;
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<Long, IndexedNote> notes = new ConcurrentHashMap<>();
+
+    // Serializes writers so a rebuild cannot overwrite a newer version of a note with an older row
+    private final Object writeLock = new Object();
+    // Ids written while a rebuild is running; the rebuild skips them
+    private Set<Long> touchedDuringRebuild;
+
+    @Autowired
+    public NoteSearchIndexService(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    private static class IndexedNote {
+        private final long id;
+        private final String title;
+        private final String subject;
+        private final String branchName;
+        private final Integer year;
+        private final Integer semester;
+        private final Long attachmentFileId;
+        private final LocalDateTime createdAt;
+        private final String snippet;
+        private final Map<String, Integer> terms;
+
+        IndexedNote(Note note) {
+            this.id = note.getId();
+            this.title = note.getTitle();
+            this.subject = note.getSubject();
+            this.branchName = note.getBranchName();
+            this.year = note.getYear();
+            this.semester = note.getSemester();
+            this.attachmentFileId = note.getAttachmentFileId();
+            this.createdAt = note.getCreatedAt();
+            String content = note.getContent() != null ? note.getContent().strip() : "";
+            this.snippet = content.length() > SNIPPET_LENGTH ? content.substring(0, SNIPPET_LENGTH) : content;
+            this.terms = InvertedIndex.termFrequencies(note.getContent(), 1);
+            InvertedIndex.addTermFrequencies(terms, note.getTitle(), TITLE_WEIGHT);
+            InvertedIndex.addTermFrequencies(terms, note.getSubject(), SUBJECT_WEIGHT);
+        }
+
+        boolean inCohort(String branchName, Integer year, Integer semester) {
+            return Objects.equals(this.branchName, branchName)
+                    && Objects.equals(this.year, year)
+                    && Objects.equals(this.semester, semester);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(this::rebuild, "note-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void index(Note note) {
+        IndexedNote indexed = new IndexedNote(note);
+        synchronized (writeLock) {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(indexed.id);
+            }
+            apply(indexed);
+        }
+    }
+
+    public void remove(Long id) {
+        synchronized (writeLock) {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(id);
+            }
+            notes.remove(id);
+            index.remove(id);
+        }
+    }
+
+    /**
+     * Ranks notes matching the query. When a cohort is given, only that branch, year and
+     * semester are searched; a null branch searches every note.
+     */
+    public List<NoteSearchResultDTO> search(String query, String branchName, Integer year, Integer semester, int limit) {
+        List<String> terms = InvertedIndex.tokenize(query);
+        LongPredicate filter = null;
+        if (branchName != null) {
+            filter = id -> {
+                IndexedNote note = notes.get(id);
+                return note != null && note.inCohort(branchName, year, semester);
+            };
+        }
+        List<NoteSearchResultDTO> results = new ArrayList<>();
+        for (InvertedIndex.Hit hit : index.search(terms, true, filter, limit)) {
+            IndexedNote note = notes.get(hit.getDocId());
+            if (note == null) {
+                continue;
+            }
+            NoteSearchResultDTO dto = new NoteSearchResultDTO();
+            dto.setId(note.id);
+            dto.setTitle(note.title);
+            dto.setSubject(note.subject);
+            dto.setBranchName(note.branchName);
+            dto.setYear(note.year);
+            dto.setSemester(note.semester);
+            dto.setCreatedAt(note.createdAt);
+            dto.setHasAttachment(note.attachmentFileId != null);
+            dto.setAttachmentUrl(note.attachmentFileId != null ? "/api/files/download/" + note.attachmentFileId : null);
+            dto.setSnippet(note.snippet);
+            dto.setScore(hit.getScore());
+            results.add(dto);
+        }
+        return results;
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (writeLock) {
+            touchedDuringRebuild = new HashSet<>();
+        }
+        try {
+            int page = 0;
+            int total = 0;
+            Page<Note> batch;
+            do {
+                batch = noteRepository.findAll(PageRequest.of(page++, REBUILD_PAGE_SIZE, Sort.by("id")));
+                // Tokenizing dominates, so it is spread across cores; the index insert itself is serialized
+                List<IndexedNote> indexed = batch.getContent().parallelStream()
+                        .map(IndexedNote::new)
+                        .collect(Collectors.toList());
+                synchronized (writeLock) {
+                    for (IndexedNote note : indexed) {
+                        if (!touchedDuringRebuild.contains(note.id)) {
+                            apply(note);
+                        }
+                    }
+                }
+                total += indexed.size();
+            } while (batch.hasNext());
+            logger.info("Note search index built: {} notes, {} terms in {} ms",
+                    total, index.termCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Note search index rebuild failed", e);
+        } finally {
+            synchronized (writeLock) {
+                touchedDuringRebuild = null;
+            }
+        }
+    }
+
+    private void apply(IndexedNote note) {
+        notes.put(note.id, note);
+        index.put(note.id, note.terms);
+    }
+}
@@ -1,21 +1,40 @@
 package com.ssid.collegeportal.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ssid.collegeportal.dto.NoteRequestDTO;
+import com.ssid.collegeportal.dto.NoteResponseDTO;
+import com.ssid.collegeportal.dto.NoteSearchResultDTO;
+import com.ssid.collegeportal.dto.NoteTrendingDTO;
 import com.ssid.collegeportal.model.DocumentFile;
+import com.ssid.collegeportal.model.DocumentOwnerType;
 import com.ssid.collegeportal.model.Note;
 import com.ssid.collegeportal.model.Student;
 import com.ssid.collegeportal.model.User;
+import com.ssid.collegeportal.repository.NoteAccessStatRepository;
 import com.ssid.collegeportal.repository.NoteRepository;
 import com.ssid.collegeportal.repository.StudentRepository;
 import com.ssid.collegeportal.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,6 +43,9 @@ public class NoteService {
 
     private static final Logger logger = LoggerFactory.getLogger(NoteService.class);
 
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+    private static final TypeReference<List<NoteResponseDTO>> NOTE_LIST = new TypeReference<>() {};
+
     @Autowired
     private NoteRepository noteRepository;
     @Autowired
@@ -32,39 +54,223 @@ public class NoteService {
     private StudentRepository studentRepository;
     @Autowired
     private DocumentFileService documentFileService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private NoteSearchIndexService noteSearchIndexService;
+    @Autowired
+    private NoteBundleService noteBundleService;
+    @Autowired
+    private NoteAccessTracker noteAccessTracker;
+    @Autowired
+    private NoteAccessStatRepository noteAccessStatRepository;
+
+    // Cohort (branch|year|semester) -> JSON of that cohort's note list, shared by every student in it
+    private final LoadingLruCache<String, byte[]> cohortCache;
+
+    public NoteService(@Value("${app.notes.cohort-cache.max-entries:512}") int cohortCacheEntries) {
+        this.cohortCache = new LoadingLruCache<>(cohortCacheEntries);
+    }
 
     public List<Note> getAllNotes() {
         return noteRepository.findAll();
     }
 
-    public List<Note> getNotesForUser(String email) {
+    /**
+     * Notes visible to the user, newest first: admins and faculty see every note, students the
+     * notes of their branch, year and semester. Student listings are served from the per-cohort
+     * cache, and each call gets its own copy of the DTOs.
+     */
+    public List<NoteResponseDTO> getNoteDTOsForUser(String email) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            return List.of();
+        }
+        if (canSeeAllNotes(user)) {
+            return noteRepository.findAll(NEWEST_FIRST).stream()
+                    .map(this::toResponseDTO).collect(Collectors.toList());
+        }
+        Student student = findStudent(user);
+        if (student == null) {
+            return List.of();
+        }
+        String branchName = student.getBranch().getName();
+        byte[] json = cohortCache.get(cohortKey(branchName, student.getYear(), student.getSemester()),
+                key -> loadCohort(branchName, student.getYear(), student.getSemester()));
+        try {
+            return objectMapper.readValue(json, NOTE_LIST);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read cached notes", e);
+        }
+    }
+
+    public List<NoteSearchResultDTO> searchNotesForUser(String email, String query, int limit) {
         User user = userRepository.findByEmail(email).orElse(null);
         if (user == null) {
             return List.of();
         }
+        if (canSeeAllNotes(user)) {
+            return noteSearchIndexService.search(query, null, null, null, limit);
+        }
+        Student student = findStudent(user);
+        if (student == null) {
+            return List.of();
+        }
+        return noteSearchIndexService.search(query, student.getBranch().getName(),
+                student.getYear(), student.getSemester(), limit);
+    }
 
-        // If user is admin or faculty, return all notes
-        if (user.getRoles().stream()
-                .anyMatch(role -> role.getName().equals("ADMIN") || role.getName().equals("FACULTY"))) {
-            return noteRepository.findAll();
-        }
-
-        // If user is student, return only notes for their branch, year, and semester
-        if (user.getRoles().stream().anyMatch(role -> role.getName().equals("STUDENT"))) {
-            Student student = studentRepository.findByUserId(user.getId());
-            if (student != null && student.getBranch() != null) {
-                return noteRepository.findAll().stream()
-                        .filter(note -> note.getBranchName() != null &&
-                                note.getBranchName().equals(student.getBranch().getName()) &&
-                                note.getYear() != null &&
-                                note.getYear().equals(student.getYear()) &&
-                                note.getSemester() != null &&
-                                note.getSemester().equals(student.getSemester()))
-                        .collect(Collectors.toList());
+    /**
+     * Students always get their own cohort; admins and faculty must name the cohort they want.
+     */
+    public Optional<NoteBundleService.Bundle> getBundleForUser(String email, String branchName, Integer year, Integer semester) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            return Optional.empty();
+        }
+        if (canSeeAllNotes(user)) {
+            if (branchName == null || year == null || semester == null) {
+                return Optional.empty();
+            }
+            return Optional.of(noteBundleService.prepare(branchName, year, semester));
+        }
+        Student student = findStudent(user);
+        if (student == null) {
+            return Optional.empty();
+        }
+        return Optional.of(noteBundleService.prepare(student.getBranch().getName(), student.getYear(), student.getSemester()));
+    }
+
+    /**
+     * Most viewed and downloaded notes of the last {@code days} days: flushed daily totals plus
+     * whatever the access tracker has counted since its last flush.
+     */
+    public List<NoteTrendingDTO> getTrendingForUser(String email, int days, int limit) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            return List.of();
+        }
+        LocalDate since = LocalDate.now().minusDays(Math.max(days, 1) - 1L);
+        // Read a few extra rows so that deleted notes and pending counts can still fill the limit
+        Pageable top = PageRequest.of(0, limit * 2);
+        List<NoteAccessStatRepository.NoteAccessTotals> totals;
+        List<NoteAccessTracker.NoteCount> pending;
+        if (canSeeAllNotes(user)) {
+            totals = noteAccessStatRepository.findTotalsSince(since, top);
+            pending = noteAccessTracker.pendingCounts();
+        } else {
+            Student student = findStudent(user);
+            if (student == null) {
+                return List.of();
             }
+            String branchName = student.getBranch().getName();
+            totals = noteAccessStatRepository.findCohortTotalsSince(branchName, student.getYear(), student.getSemester(), since, top);
+            pending = noteAccessTracker.pendingCounts(branchName, student.getYear(), student.getSemester());
+        }
+
+        Map<Long, long[]> counts = new HashMap<>();
+        for (NoteAccessStatRepository.NoteAccessTotals total : totals) {
+            counts.put(total.getNoteId(), new long[]{total.getViews(), total.getDownloads()});
+        }
+        for (NoteAccessTracker.NoteCount count : pending) {
+            long[] merged = counts.computeIfAbsent(count.getNoteId(), id -> new long[2]);
+            merged[0] += count.getViews();
+            merged[1] += count.getDownloads();
+        }
+
+        List<NoteTrendingDTO> trending = new ArrayList<>();
+        for (Note note : noteRepository.findAllById(counts.keySet())) {
+            long[] noteCounts = counts.get(note.getId());
+            NoteTrendingDTO dto = new NoteTrendingDTO();
+            dto.setId(note.getId());
+            dto.setTitle(note.getTitle());
+            dto.setSubject(note.getSubject());
+            dto.setHasAttachment(note.hasAttachment());
+            dto.setViews(noteCounts[0]);
+            dto.setDownloads(noteCounts[1]);
+            trending.add(dto);
+        }
+        trending.sort(Comparator.comparingLong((NoteTrendingDTO dto) -> dto.getViews() + dto.getDownloads()).reversed());
+        return trending.size() > limit ? new ArrayList<>(trending.subList(0, limit)) : trending;
+    }
+
+    public void recordView(Note note) {
+        noteAccessTracker.recordView(note);
+    }
+
+    public void recordDownload(Note note) {
+        noteAccessTracker.recordDownload(note);
+    }
+
+    public Map<String, Object> getAccessTrackerStats() {
+        return noteAccessTracker.getStats();
+    }
+
+    public Map<String, Object> getCohortCacheStats() {
+        return cohortCache.getStats();
+    }
+
+    public NoteResponseDTO toResponseDTO(Note note) {
+        NoteResponseDTO dto = new NoteResponseDTO();
+        dto.setId(note.getId());
+        dto.setTitle(note.getTitle());
+        dto.setContent(note.getContent());
+        dto.setSubject(note.getSubject());
+        dto.setBranchName(note.getBranchName());
+        dto.setYear(note.getYear());
+        dto.setSemester(note.getSemester());
+        dto.setCreatedAt(note.getCreatedAt());
+        dto.setHasAttachment(note.hasAttachment());
+        dto.setAttachmentUrl(note.hasAttachment() ? "/api/files/download/" + note.getAttachmentFileId() : null);
+        return dto;
+    }
+
+    private byte[] loadCohort(String branchName, Integer year, Integer semester) {
+        List<NoteResponseDTO> notes = noteRepository
+                .findByBranchNameAndYearAndSemester(branchName, year, semester, NEWEST_FIRST).stream()
+                .map(this::toResponseDTO).collect(Collectors.toList());
+        try {
+            return objectMapper.writeValueAsBytes(notes);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize notes", e);
         }
+    }
+
+    private void invalidateCohort(Note note) {
+        cohortCache.invalidate(cohortKey(note.getBranchName(), note.getYear(), note.getSemester()));
+    }
 
-        return List.of();
+    private static String cohortKey(String branchName, Integer year, Integer semester) {
+        return branchName + "|" + year + "|" + semester;
+    }
+
+    public Page<Note> getNotesPageForUser(String email, Pageable pageable) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            return Page.empty(pageable);
+        }
+        if (canSeeAllNotes(user)) {
+            return noteRepository.findAll(pageable);
+        }
+        Student student = findStudent(user);
+        if (student != null) {
+            return noteRepository.findByBranchNameAndYearAndSemester(
+                    student.getBranch().getName(), student.getYear(), student.getSemester(), pageable);
+        }
+        return Page.empty(pageable);
+    }
+
+    private boolean canSeeAllNotes(User user) {
+        return user.getRoles().stream()
+                .anyMatch(role -> role.getName().equals("ADMIN") || role.getName().equals("FACULTY"));
+    }
+
+    private Student findStudent(User user) {
+        if (user.getRoles().stream().noneMatch(role -> role.getName().equals("STUDENT"))) {
+            return null;
+        }
+        Student student = studentRepository.findByUserId(user.getId());
+        return student != null && student.getBranch() != null ? student : null;
     }
 
     public Optional<Note> getNoteById(Long id) {
@@ -87,7 +293,8 @@ public class NoteService {
                 DocumentFile documentFile = documentFileService.uploadFile(
                     dto.getAttachment(),
                     getCurrentUsername(),
-                    "Note attachment for: " + dto.getTitle()
+                    "Note attachment for: " + dto.getTitle(),
+                    DocumentOwnerType.NOTE
                 );
                 note.setAttachmentFile(documentFile);
                 logger.info("File attached to note: {} (file ID: {})", dto.getTitle(), documentFile.getId());
@@ -97,11 +304,15 @@ public class NoteService {
             }
         }
 
-        return noteRepository.save(note);
+        Note saved = noteRepository.save(note);
+        invalidateCohort(saved);
+        noteSearchIndexService.index(saved);
+        return saved;
     }
 
     public Note updateNote(Long id, NoteRequestDTO dto) {
         Note note = noteRepository.findById(id).orElseThrow();
+        String previousCohort = cohortKey(note.getBranchName(), note.getYear(), note.getSemester());
         note.setTitle(dto.getTitle());
         note.setContent(dto.getContent());
         note.setSubject(dto.getSubject());
@@ -121,7 +332,8 @@ public class NoteService {
                 DocumentFile documentFile = documentFileService.uploadFile(
                     dto.getAttachment(),
                     getCurrentUsername(),
-                    "Updated note attachment for: " + dto.getTitle()
+                    "Updated note attachment for: " + dto.getTitle(),
+                    DocumentOwnerType.NOTE
                 );
                 note.setAttachmentFile(documentFile);
                 logger.info("File attachment updated for note: {} (file ID: {})", dto.getTitle(), documentFile.getId());
@@ -131,7 +343,12 @@ public class NoteService {
             }
         }
 
-        return noteRepository.save(note);
+        Note saved = noteRepository.save(note);
+        // The note may have moved to another cohort, in which case both listings changed
+        cohortCache.invalidate(previousCohort);
+        invalidateCohort(saved);
+        noteSearchIndexService.index(saved);
+        return saved;
     }
 
     public void deleteNote(Long id) {
@@ -148,6 +365,8 @@ public class NoteService {
         }
 
         noteRepository.deleteById(id);
+        invalidateCohort(note);
+        noteSearchIndexService.remove(id);
         logger.info("Note deleted successfully: ID {}", id);
     }
 
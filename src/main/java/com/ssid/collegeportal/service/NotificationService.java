@@ -9,15 +9,21 @@ import com.ssid.collegeportal.repository.UserRepository;
 import com.ssid.collegeportal.repository.StudentRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
+import java.util.Set;
 import java.util.Arrays;
 
 @Service
@@ -32,6 +38,26 @@ public class NotificationService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final int MAX_MESSAGE_LENGTH = 255;
+
+    /**
+     * A notification for one user, written by {@link #createNotificationsInBulk}.
+     */
+    public static class BulkNotification {
+        private final long userId;
+        private final String title;
+        private final String message;
+
+        public BulkNotification(long userId, String title, String message) {
+            this.userId = userId;
+            this.title = title;
+            this.message = message;
+        }
+    }
+
     public List<Notification> getAllNotifications() {
         return notificationRepository.findAll();
     }
@@ -114,6 +140,46 @@ public class NotificationService {
         return recipients;
     }
 
+    /**
+     * Inserts many notifications with one JDBC batch instead of a save per recipient. Meant for
+     * system jobs; no e-mails are sent.
+     */
+    public int createNotificationsInBulk(List<BulkNotification> notifications, String type) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(notifications.size());
+        for (BulkNotification notification : notifications) {
+            rows.add(new Object[]{notification.userId, truncate(notification.title), truncate(notification.message), now, type});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notification (user_id, title, message, created_at, `read`, type) VALUES (?, ?, ?, ?, false, ?)",
+                rows);
+        return rows.size();
+    }
+
+    /**
+     * Which of the given users already received a notification of this type since {@code since}.
+     */
+    public Set<Long> findUsersNotifiedSince(Collection<Long> userIds, String type, LocalDateTime since) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        List<Object> args = new ArrayList<>(userIds);
+        args.add(type);
+        args.add(Timestamp.valueOf(since));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT user_id FROM notification WHERE user_id IN (" + placeholders + ") " +
+                "AND type = ? AND created_at >= ?",
+                Long.class, args.toArray()));
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_MESSAGE_LENGTH ? value.substring(0, MAX_MESSAGE_LENGTH - 3) + "..." : value;
+    }
+
     public void markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new IllegalArgumentException("Notification not found"));
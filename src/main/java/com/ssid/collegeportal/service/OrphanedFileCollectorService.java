@@ -0,0 +1,206 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.OrphanCollectionReportDTO;
+import com.ssid.collegeportal.repository.DocumentFileRepository;
+import com.ssid.collegeportal.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mark-and-sweep collector for storage nothing points at any more: files in the uploads
+ * directory that no event references, and note attachments in document_files whose note is
+ * gone. Anything younger than the grace period is left alone so in-flight uploads survive, and
+ * deletions are done in batches with a pause in between to keep I/O and DB load low.
+ */
+@Service
+public class OrphanedFileCollectorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanedFileCollectorService.class);
+
+    private static final int MAX_SAMPLES = 100;
+
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private DocumentFileRepository documentFileRepository;
+    @Autowired
+    private DocumentFileService documentFileService;
+    @Autowired
+    private EventAttachmentService eventAttachmentService;
+
+    @Value("${app.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.gc.dry-run:false}")
+    private boolean scheduledDryRun;
+
+    @Value("${app.gc.grace-period-hours:24}")
+    private long gracePeriodHours;
+
+    @Value("${app.gc.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.gc.batch-pause-ms:500}")
+    private long batchPauseMs;
+
+    @Value("${app.gc.max-deletes-per-run:10000}")
+    private int maxDeletesPerRun;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private volatile OrphanCollectionReportDTO lastReport;
+
+    @Scheduled(cron = "${app.gc.cron:0 0 3 * * *}")
+    public void scheduledCollect() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect(scheduledDryRun);
+        } catch (IllegalStateException e) {
+            logger.info("Skipping scheduled orphan collection: {}", e.getMessage());
+        }
+    }
+
+    public OrphanCollectionReportDTO collect(boolean dryRun) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Orphan collection is already running");
+        }
+        try {
+            OrphanCollectionReportDTO report = new OrphanCollectionReportDTO();
+            report.setDryRun(dryRun);
+            report.setStartedAt(LocalDateTime.now());
+            LocalDateTime cutoff = report.getStartedAt().minusHours(gracePeriodHours);
+
+            int budget = sweepUploadFiles(report, cutoff, dryRun, maxDeletesPerRun);
+            sweepDocuments(report, cutoff, dryRun, budget);
+
+            report.setFinishedAt(LocalDateTime.now());
+            lastReport = report;
+            logger.info("Orphan collection {}: {} upload files ({} bytes), {} documents ({} bytes), reclaimed {} bytes",
+                    dryRun ? "dry run" : "finished",
+                    report.getOrphanedUploadFiles(), report.getOrphanedUploadBytes(),
+                    report.getOrphanedDocuments(), report.getOrphanedDocumentBytes(),
+                    report.getReclaimedBytes());
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public OrphanCollectionReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    private int sweepUploadFiles(OrphanCollectionReportDTO report, LocalDateTime cutoff, boolean dryRun, int budget) {
+        Path uploadDir = eventAttachmentService.getUploadDirectory();
+        if (!Files.isDirectory(uploadDir)) {
+            return budget;
+        }
+        // Mark: every attachment an event still points at
+        Set<String> referenced = new HashSet<>(eventRepository.findAllAttachmentPaths());
+        long cutoffMillis = System.currentTimeMillis() - Duration.ofHours(gracePeriodHours).toMillis();
+
+        int inBatch = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                // Sub-directories belong to other stores (content, bundles, ...) and are never swept
+                if (!attributes.isRegularFile()
+                        || attributes.lastModifiedTime().toMillis() >= cutoffMillis
+                        || referenced.contains(file.getFileName().toString())) {
+                    continue;
+                }
+                report.setOrphanedUploadFiles(report.getOrphanedUploadFiles() + 1);
+                report.setOrphanedUploadBytes(report.getOrphanedUploadBytes() + attributes.size());
+                if (report.getSampleUploadFiles().size() < MAX_SAMPLES) {
+                    report.getSampleUploadFiles().add(file.getFileName().toString());
+                }
+                if (dryRun) {
+                    continue;
+                }
+                if (budget <= 0) {
+                    report.setTruncated(true);
+                    continue;
+                }
+                if (eventAttachmentService.delete(file.getFileName().toString())) {
+                    report.setDeletedUploadFiles(report.getDeletedUploadFiles() + 1);
+                    report.setReclaimedBytes(report.getReclaimedBytes() + attributes.size());
+                    budget--;
+                }
+                if (++inBatch >= batchSize) {
+                    inBatch = 0;
+                    pause();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not scan upload directory {}", uploadDir, e);
+        }
+        return budget;
+    }
+
+    private void sweepDocuments(OrphanCollectionReportDTO report, LocalDateTime cutoff, boolean dryRun, int budget) {
+        long afterId = 0L;
+        while (true) {
+            List<DocumentFileRepository.StoredFileSummary> batch = documentFileRepository.findOrphanedNoteAttachments(
+                    afterId, cutoff, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            for (DocumentFileRepository.StoredFileSummary file : batch) {
+                afterId = file.getId();
+                long size = file.getFileSize() != null ? file.getFileSize() : 0L;
+                report.setOrphanedDocuments(report.getOrphanedDocuments() + 1);
+                report.setOrphanedDocumentBytes(report.getOrphanedDocumentBytes() + size);
+                if (report.getSampleDocumentIds().size() < MAX_SAMPLES) {
+                    report.getSampleDocumentIds().add(file.getId());
+                }
+                if (dryRun) {
+                    continue;
+                }
+                if (budget <= 0) {
+                    report.setTruncated(true);
+                    continue;
+                }
+                try {
+                    documentFileService.deleteFile(file.getId());
+                    report.setDeletedDocuments(report.getDeletedDocuments() + 1);
+                    report.setReclaimedBytes(report.getReclaimedBytes() + size);
+                    budget--;
+                } catch (RuntimeException e) {
+                    logger.warn("Could not delete orphaned document ID: {}", file.getId(), e);
+                }
+            }
+            if (!dryRun) {
+                pause();
+            }
+        }
+    }
+
+    private void pause() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.ResultStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Distribution statistics of result marks per subject, for one branch or across all branches.
+ *
+ * The marks of a scope are read with a two-column query into one primitive array per subject,
+ * and the subjects are then summarised in parallel. Summaries are cached per scope until a
+ * result in that branch is written.
+ */
+@Service
+public class ResultAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultAnalyticsService.class);
+
+    private static final int HISTOGRAM_BUCKETS = 10;
+    private static final double MAX_MARKS = 100.0;
+    private static final String ALL_BRANCHES = "all";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Scope (branch id or "all") -> subject -> statistics
+    private final LoadingLruCache<String, Map<String, Stats>> cache;
+
+    public ResultAnalyticsService(@Value("${app.results.analytics-cache.max-entries:256}") int maxEntries) {
+        this.cache = new LoadingLruCache<>(maxEntries);
+    }
+
+    private static class Stats {
+        private final int count;
+        private final double mean;
+        private final double median;
+        private final double standardDeviation;
+        private final double min;
+        private final double max;
+        private final double p25;
+        private final double p75;
+        private final double p90;
+        private final int[] histogram;
+
+        // Sorts the array in place
+        Stats(double[] marks) {
+            Arrays.sort(marks);
+            count = marks.length;
+            double sum = 0;
+            for (double mark : marks) {
+                sum += mark;
+            }
+            mean = sum / count;
+            double squares = 0;
+            histogram = new int[HISTOGRAM_BUCKETS];
+            for (double mark : marks) {
+                squares += (mark - mean) * (mark - mean);
+                int bucket = (int) (mark / (MAX_MARKS / HISTOGRAM_BUCKETS));
+                histogram[Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, bucket))]++;
+            }
+            standardDeviation = Math.sqrt(squares / count);
+            min = marks[0];
+            max = marks[count - 1];
+            median = percentile(marks, 50);
+            p25 = percentile(marks, 25);
+            p75 = percentile(marks, 75);
+            p90 = percentile(marks, 90);
+        }
+    }
+
+    /**
+     * Growable primitive column, so loading marks does not box every value.
+     */
+    private static class DoubleColumn {
+        private double[] values = new double[64];
+        private int size;
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    public List<ResultStatsDTO> getStats(Long branchId) {
+        List<ResultStatsDTO> stats = new ArrayList<>();
+        scope(branchId).forEach((subject, value) -> stats.add(toDTO(subject, branchId, value)));
+        return stats;
+    }
+
+    public Optional<ResultStatsDTO> getSubjectStats(String subject, Long branchId) {
+        Stats stats = scope(branchId).get(subject);
+        return stats != null ? Optional.of(toDTO(subject, branchId, stats)) : Optional.empty();
+    }
+
+    /**
+     * Drops the cached figures a result of this branch contributes to.
+     */
+    public void invalidate(Long branchId) {
+        if (branchId != null) {
+            cache.invalidate(String.valueOf(branchId));
+        }
+        cache.invalidate(ALL_BRANCHES);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return cache.getStats();
+    }
+
+    private Map<String, Stats> scope(Long branchId) {
+        return cache.get(branchId != null ? String.valueOf(branchId) : ALL_BRANCHES, key -> load(branchId));
+    }
+
+    private Map<String, Stats> load(Long branchId) {
+        long start = System.currentTimeMillis();
+        Map<String, DoubleColumn> columns = new HashMap<>();
+        String sql = "SELECT r.subject, r.marks FROM result r " +
+                (branchId != null ? "JOIN student s ON s.id = r.student_id WHERE s.branch_id = ? AND " : "WHERE ") +
+                "r.marks IS NOT NULL AND r.subject IS NOT NULL";
+        Object[] args = branchId != null ? new Object[]{branchId} : new Object[0];
+        jdbcTemplate.query(sql, rs -> {
+            columns.computeIfAbsent(rs.getString(1), k -> new DoubleColumn()).add(rs.getDouble(2));
+        }, args);
+
+        Map<String, Stats> stats = columns.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> new Stats(entry.getValue().toArray())));
+        logger.debug("Computed result statistics for {} subjects of scope {} in {} ms", stats.size(),
+                branchId != null ? branchId : ALL_BRANCHES, System.currentTimeMillis() - start);
+        return new TreeMap<>(stats);
+    }
+
+    // Linear interpolation between the closest ranks
+    private static double percentile(double[] sorted, double percent) {
+        if (sorted.length == 1) {
+            return sorted[0];
+        }
+        double rank = percent / 100.0 * (sorted.length - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, sorted.length - 1);
+        return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+    }
+
+    private static ResultStatsDTO toDTO(String subject, Long branchId, Stats stats) {
+        ResultStatsDTO dto = new ResultStatsDTO();
+        dto.setSubject(subject);
+        dto.setBranchId(branchId);
+        dto.setCount(stats.count);
+        dto.setMean(stats.mean);
+        dto.setMedian(stats.median);
+        dto.setStandardDeviation(stats.standardDeviation);
+        dto.setMin(stats.min);
+        dto.setMax(stats.max);
+        dto.setP25(stats.p25);
+        dto.setP75(stats.p75);
+        dto.setP90(stats.p90);
+        dto.setHistogram(stats.histogram.clone());
+        return dto;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ssid.collegeportal.service;
+
+import com.itextpdf.text.DocumentException;
+import com.ssid.collegeportal.dto.ResultResponseDTO;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+@Service
+public class ResultExportService {
+
+    /**
+     * A student's results as a PDF table, in the order given.
+     */
+    public void writeResultsPdf(Long studentId, List<ResultResponseDTO> results, OutputStream out) throws IOException, DocumentException {
+        StudentPdfReport report = new StudentPdfReport(out, "Results Report", studentId,
+                "Subject", "Semester", "Marks", "Result ID");
+        for (ResultResponseDTO result : results) {
+            report.addRow(result.getSubject(),
+                    result.getSemester() != null ? String.valueOf(result.getSemester()) : "",
+                    String.valueOf(result.getMarks()),
+                    String.valueOf(result.getId()));
+        }
+        report.finish();
+    }
+}
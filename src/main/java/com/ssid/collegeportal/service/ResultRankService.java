@@ -0,0 +1,334 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.ResultRankDTO;
+import com.ssid.collegeportal.model.Result;
+import com.ssid.collegeportal.model.Student;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Class ranks per (branch, semester, subject), plus an overall rank per (branch, semester) on
+ * each student's average for that semester. The semester is the one the result was earned in,
+ * so attempts at a subject in different semesters are ranked separately.
+ *
+ * Marks are bucketed to 0.01. Every group keeps a sorted map of its occupied buckets, for
+ * reading the top N in order, and a small Fenwick tree counting students per whole mark. Rank
+ * and percentile are a prefix sum over the whole marks below plus a walk over the occupied
+ * buckets within the student's own mark, so a group costs memory in proportion to its students
+ * rather than to the mark range.
+ * A result write re-reads that student's mark for the subject and moves them between buckets;
+ * the whole index is only rebuilt from the database on first use and after student records
+ * change.
+ */
+@Service
+public class ResultRankService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultRankService.class);
+
+    private static final int BUCKETS_PER_MARK = 100;
+    private static final int BUCKETS = 100 * BUCKETS_PER_MARK + 1;
+    // Whole marks 0..100, one Fenwick counter each
+    private static final int WHOLE_MARKS = 101;
+    public static final String OVERALL = "OVERALL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RankGroup> groups = new HashMap<>();
+    private final Map<Long, StudentMarks> students = new HashMap<>();
+    private volatile boolean stale = true;
+
+    private static class StudentMarks {
+        private final long branchId;
+        private final String name;
+        // Semester -> subject -> marks
+        private final Map<Integer, Map<String, Double>> marks = new HashMap<>();
+
+        StudentMarks(long branchId, String name) {
+            this.branchId = branchId;
+            this.name = name;
+        }
+
+        Double average(int semester) {
+            Map<String, Double> subjects = marks.get(semester);
+            if (subjects == null || subjects.isEmpty()) {
+                return null;
+            }
+            double sum = 0;
+            for (double mark : subjects.values()) {
+                sum += mark;
+            }
+            return sum / subjects.size();
+        }
+    }
+
+    private static class RankGroup {
+        // Fenwick tree over whole marks, 1-based
+        private final int[] tree = new int[WHOLE_MARKS + 1];
+        private final NavigableMap<Integer, Set<Long>> byBucket = new TreeMap<>(Collections.reverseOrder());
+        private final Map<Long, Integer> bucketOf = new HashMap<>();
+
+        void put(long studentId, double marks) {
+            remove(studentId);
+            int bucket = bucket(marks);
+            bucketOf.put(studentId, bucket);
+            byBucket.computeIfAbsent(bucket, b -> new LinkedHashSet<>()).add(studentId);
+            add(bucket, 1);
+        }
+
+        void remove(long studentId) {
+            Integer bucket = bucketOf.remove(studentId);
+            if (bucket == null) {
+                return;
+            }
+            Set<Long> inBucket = byBucket.get(bucket);
+            inBucket.remove(studentId);
+            if (inBucket.isEmpty()) {
+                byBucket.remove(bucket);
+            }
+            add(bucket, -1);
+        }
+
+        int size() {
+            return bucketOf.size();
+        }
+
+        // Students with marks at or below the bucket
+        int countUpTo(int bucket) {
+            int mark = bucket / BUCKETS_PER_MARK;
+            int count = 0;
+            for (int i = mark; i > 0; i -= i & -i) {
+                count += tree[i];
+            }
+            // byBucket is descending, so this runs from the bucket down to the start of its mark
+            for (Set<Long> inBucket : byBucket.subMap(bucket, true, mark * BUCKETS_PER_MARK, true).values()) {
+                count += inBucket.size();
+            }
+            return count;
+        }
+
+        private void add(int bucket, int delta) {
+            for (int i = bucket / BUCKETS_PER_MARK + 1; i <= WHOLE_MARKS; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+    }
+
+    /**
+     * Ranks of one student in each of their subjects and overall, per semester; empty if they
+     * have no results.
+     */
+    public List<ResultRankDTO> getStudentRanks(Long studentId) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            StudentMarks student = students.get(studentId);
+            if (student == null) {
+                return List.of();
+            }
+            List<ResultRankDTO> ranks = new ArrayList<>();
+            new TreeMap<>(student.marks).forEach((semester, subjects) -> {
+                if (subjects.isEmpty()) {
+                    return;
+                }
+                new TreeMap<>(subjects).forEach((subject, marks) -> ranks.add(
+                        rankOf(studentId, student, semester, subject, marks)));
+                ranks.add(rankOf(studentId, student, semester, OVERALL, student.average(semester)));
+            });
+            return ranks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The best {@code limit} students of a group, ties sharing a rank. A null subject means the
+     * overall ranking.
+     */
+    public List<ResultRankDTO> getTop(Long branchId, int semester, String subject, int limit) {
+        ensureBuilt();
+        String groupSubject = subject != null ? subject : OVERALL;
+        lock.readLock().lock();
+        try {
+            RankGroup group = groups.get(groupKey(branchId, semester, groupSubject));
+            List<ResultRankDTO> top = new ArrayList<>();
+            if (group == null) {
+                return top;
+            }
+            int ahead = 0;
+            Iterator<Map.Entry<Integer, Set<Long>>> buckets = group.byBucket.entrySet().iterator();
+            while (top.size() < limit && buckets.hasNext()) {
+                Map.Entry<Integer, Set<Long>> bucket = buckets.next();
+                for (Long studentId : bucket.getValue()) {
+                    if (top.size() == limit) {
+                        break;
+                    }
+                    ResultRankDTO dto = dto(studentId, students.get(studentId), semester, groupSubject,
+                            bucket.getKey() / (double) BUCKETS_PER_MARK);
+                    dto.setRank(ahead + 1);
+                    dto.setOutOf(group.size());
+                    dto.setPercentile(percentile(group, bucket.getKey()));
+                    top.add(dto);
+                }
+                ahead += bucket.getValue().size();
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a student's mark for a subject and semester after a result for it was created,
+     * updated, moved or deleted. The mark is read back from the database, because a student may
+     * have several results for a subject and the latest remaining one counts, as in a full
+     * rebuild. A null semester means the student's current one.
+     */
+    public void onResultChanged(Student student, Integer semester, String subject) {
+        if (stale || student == null || student.getBranch() == null || subject == null) {
+            return;
+        }
+        int resultSemester = semester != null ? semester : student.getSemester();
+        lock.writeLock().lock();
+        try {
+            if (stale) {
+                return;
+            }
+            List<Double> latest = jdbcTemplate.queryForList(
+                    "SELECT marks FROM result WHERE student_id = ? AND semester = ? AND subject = ? " +
+                    "AND marks IS NOT NULL ORDER BY id DESC LIMIT 1",
+                    Double.class, student.getId(), resultSemester, subject);
+            Double marks = latest.isEmpty() ? null : latest.get(0);
+            StudentMarks entry = students.computeIfAbsent(student.getId(), id -> new StudentMarks(
+                    student.getBranch().getId(), student.getUser() != null ? student.getUser().getName() : null));
+            RankGroup group = groups.computeIfAbsent(groupKey(entry.branchId, resultSemester, subject), k -> new RankGroup());
+            Map<String, Double> subjects = entry.marks.computeIfAbsent(resultSemester, k -> new HashMap<>());
+            if (marks != null) {
+                subjects.put(subject, marks);
+                group.put(student.getId(), marks);
+            } else {
+                subjects.remove(subject);
+                group.remove(student.getId());
+            }
+            updateOverall(student.getId(), entry, resultSemester);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onResultChanged(Result result) {
+        onResultChanged(result.getStudent(), result.getSemester(), result.getSubject());
+    }
+
+    /**
+     * Student records changed (branch, semester or removal); the index is rebuilt on next use.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    private void ensureBuilt() {
+        if (!stale) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (stale) {
+                build();
+                stale = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void build() {
+        long start = System.currentTimeMillis();
+        groups.clear();
+        students.clear();
+        // Ordered by id so that of duplicate results for a subject in a semester the latest wins
+        jdbcTemplate.query(
+                "SELECT r.student_id, s.branch_id, COALESCE(r.semester, s.semester), u.name, r.subject, r.marks " +
+                "FROM result r JOIN student s ON s.id = r.student_id LEFT JOIN users u ON u.id = s.user_id " +
+                "WHERE r.marks IS NOT NULL AND r.subject IS NOT NULL AND s.branch_id IS NOT NULL ORDER BY r.id",
+                rs -> {
+                    long studentId = rs.getLong(1);
+                    long branchId = rs.getLong(2);
+                    int semester = rs.getInt(3);
+                    String name = rs.getString(4);
+                    StudentMarks entry = students.computeIfAbsent(studentId, id -> new StudentMarks(branchId, name));
+                    entry.marks.computeIfAbsent(semester, k -> new HashMap<>()).put(rs.getString(5), rs.getDouble(6));
+                });
+        students.forEach((studentId, entry) -> entry.marks.forEach((semester, subjects) -> {
+            subjects.forEach((subject, marks) -> groups
+                    .computeIfAbsent(groupKey(entry.branchId, semester, subject), k -> new RankGroup())
+                    .put(studentId, marks));
+            updateOverall(studentId, entry, semester);
+        }));
+        logger.info("Built result ranks for {} students in {} groups in {} ms", students.size(), groups.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private void updateOverall(long studentId, StudentMarks entry, int semester) {
+        RankGroup overall = groups.computeIfAbsent(groupKey(entry.branchId, semester, OVERALL), k -> new RankGroup());
+        Double average = entry.average(semester);
+        if (average != null) {
+            overall.put(studentId, average);
+        } else {
+            overall.remove(studentId);
+        }
+    }
+
+    private ResultRankDTO rankOf(long studentId, StudentMarks student, int semester, String subject, double marks) {
+        RankGroup group = groups.get(groupKey(student.branchId, semester, subject));
+        int bucket = bucket(marks);
+        ResultRankDTO dto = dto(studentId, student, semester, subject, marks);
+        // Competition ranking: one more than the number of students strictly ahead
+        dto.setRank(group.size() - group.countUpTo(bucket) + 1);
+        dto.setOutOf(group.size());
+        dto.setPercentile(percentile(group, bucket));
+        return dto;
+    }
+
+    private static ResultRankDTO dto(long studentId, StudentMarks student, int semester, String subject, double marks) {
+        ResultRankDTO dto = new ResultRankDTO();
+        dto.setStudentId(studentId);
+        dto.setStudentName(student != null ? student.name : null);
+        dto.setBranchId(student != null ? student.branchId : null);
+        dto.setSemester(semester);
+        dto.setSubject(subject);
+        dto.setMarks(marks);
+        return dto;
+    }
+
+    // Share of the group scoring at or below the bucket
+    private static double percentile(RankGroup group, int bucket) {
+        return group.size() == 0 ? 0.0 : group.countUpTo(bucket) * 100.0 / group.size();
+    }
+
+    private static int bucket(double marks) {
+        return (int) Math.max(0, Math.min(BUCKETS - 1, Math.round(marks * BUCKETS_PER_MARK)));
+    }
+
+    private static String groupKey(long branchId, int semester, String subject) {
+        return branchId + "|" + semester + "|" + subject;
+    }
+}
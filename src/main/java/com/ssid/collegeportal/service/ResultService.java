@@ -1,35 +1,112 @@
 package com.ssid.collegeportal.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ssid.collegeportal.dto.ResultRequestDTO;
+import com.ssid.collegeportal.dto.ResultResponseDTO;
 import com.ssid.collegeportal.model.Result;
 import com.ssid.collegeportal.model.Student;
 import com.ssid.collegeportal.repository.ResultRepository;
 import com.ssid.collegeportal.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class ResultService {
+    private static final TypeReference<List<ResultResponseDTO>> RESULT_LIST = new TypeReference<>() {};
+
     @Autowired
     private ResultRepository resultRepository;
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ResultAnalyticsService resultAnalyticsService;
+    @Autowired
+    private ResultRankService resultRankService;
+    @Autowired
+    private GpaService gpaService;
+
+    // Serialized transcripts per student id, so every reader gets its own copy of the DTOs
+    private final LoadingLruCache<Long, byte[]> transcriptCache;
+
+    public ResultService(@Value("${app.results.transcript-cache.max-entries:20000}") int transcriptCacheEntries) {
+        this.transcriptCache = new LoadingLruCache<>(transcriptCacheEntries);
+    }
 
     public List<Result> getAllResults() {
-        return resultRepository.findAll();
+        return resultRepository.findAllByOrderByIdAsc();
     }
 
     public Optional<Result> getResultById(Long id) {
         return resultRepository.findById(id);
     }
 
-    public List<Result> getResultsByStudentId(Long studentId) {
-        return resultRepository.findAll().stream()
-                .filter(r -> r.getStudent() != null && r.getStudent().getId().equals(studentId))
-                .toList();
+    /**
+     * A student's results as DTOs, served from the transcript cache.
+     */
+    public List<ResultResponseDTO> getTranscript(Long studentId) {
+        byte[] json = transcriptCache.get(studentId, this::loadTranscript);
+        try {
+            return objectMapper.readValue(json, RESULT_LIST);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read cached transcript", e);
+        }
+    }
+
+    public Map<String, Object> getTranscriptCacheStats() {
+        return transcriptCache.getStats();
+    }
+
+    public ResultResponseDTO toResponseDTO(Result result) {
+        ResultResponseDTO dto = new ResultResponseDTO();
+        dto.setId(result.getId());
+        if (result.getStudent() != null) {
+            dto.setStudentId(result.getStudent().getId());
+            dto.setStudentName(result.getStudent().getUser() != null ? result.getStudent().getUser().getName() : null);
+        }
+        dto.setSubject(result.getSubject());
+        dto.setMarks(result.getMarks());
+        dto.setSemester(result.getSemester());
+        return dto;
+    }
+
+    /**
+     * Drops every cache derived from results after rows were written outside this service.
+     */
+    public void invalidateAfterBulkWrite(Collection<Long> studentIds) {
+        studentIds.forEach(transcriptCache::invalidate);
+        studentIds.forEach(gpaService::invalidate);
+        resultAnalyticsService.invalidateAll();
+        resultRankService.invalidate();
+    }
+
+    private byte[] loadTranscript(Long studentId) {
+        List<ResultResponseDTO> results = resultRepository.findByStudentIdOrderBySubjectAsc(studentId).stream()
+                .map(this::toResponseDTO).collect(Collectors.toList());
+        try {
+            return objectMapper.writeValueAsBytes(results);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize transcript", e);
+        }
+    }
+
+    // Called after the write, so a load racing with it cannot cache the old rows again
+    private void invalidateCaches(Student student) {
+        if (student != null) {
+            transcriptCache.invalidate(student.getId());
+        }
+        resultAnalyticsService.invalidate(student != null && student.getBranch() != null ? student.getBranch().getId() : null);
     }
 
     public Result createResult(ResultRequestDTO dto) {
@@ -51,7 +128,12 @@ public class ResultService {
         result.setStudent(student);
         result.setSubject(dto.getSubject().trim());
         result.setMarks(dto.getMarks());
-        return resultRepository.save(result);
+        result.setSemester(dto.getSemester() != null ? dto.getSemester() : student.getSemester());
+        Result saved = resultRepository.save(result);
+        invalidateCaches(student);
+        resultRankService.onResultChanged(saved);
+        gpaService.onResultChanged(student.getId(), saved.getSemester());
+        return saved;
     }
 
     public Result updateResult(Long id, ResultRequestDTO dto) {
@@ -72,13 +154,42 @@ public class ResultService {
             throw new RuntimeException("Subject cannot be empty");
         }
 
+        // The result may move to another student or subject; both sides change
+        Student previousStudent = result.getStudent();
+        String previousSubject = result.getSubject();
+        Integer previousSemester = result.getSemester();
+        boolean sameStudent = previousStudent != null && previousStudent.getId().equals(student.getId());
         result.setStudent(student);
         result.setSubject(dto.getSubject().trim());
         result.setMarks(dto.getMarks());
-        return resultRepository.save(result);
+        if (dto.getSemester() != null) {
+            result.setSemester(dto.getSemester());
+        } else if (!sameStudent || previousSemester == null) {
+            result.setSemester(student.getSemester());
+        }
+        Result saved = resultRepository.save(result);
+        invalidateCaches(previousStudent);
+        if (!sameStudent) {
+            invalidateCaches(student);
+        }
+        resultRankService.onResultChanged(previousStudent, previousSemester, previousSubject);
+        resultRankService.onResultChanged(saved);
+        if (previousStudent != null && (!sameStudent || !saved.getSemester().equals(previousSemester))) {
+            gpaService.onResultChanged(previousStudent.getId(), previousSemester);
+        }
+        gpaService.onResultChanged(student.getId(), saved.getSemester());
+        return saved;
     }
 
     public void deleteResult(Long id) {
+        Optional<Result> result = resultRepository.findById(id);
         resultRepository.deleteById(id);
+        result.ifPresent(deleted -> {
+            invalidateCaches(deleted.getStudent());
+            resultRankService.onResultChanged(deleted.getStudent(), deleted.getSemester(), deleted.getSubject());
+            if (deleted.getStudent() != null) {
+                gpaService.onResultChanged(deleted.getStudent().getId(), deleted.getSemester());
+            }
+        });
     }
 }
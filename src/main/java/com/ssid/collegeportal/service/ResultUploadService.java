@@ -0,0 +1,355 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.ResultUploadResponseDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Publishes results from a CSV upload with the columns studentId, subject and marks.
+ *
+ * The file is read line by line and every row is checked for a known student, a valid subject
+ * and marks between 0 and 100; students are looked up with batched IN queries. Valid rows are
+ * grouped by subject and each subject is written in its own transaction with JDBC batches, so
+ * a subject is published completely or not at all. Rejected rows go to a CSV error report that
+ * can be downloaded afterwards, and students are notified once when everything is written.
+ */
+@Service
+public class ResultUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultUploadService.class);
+
+    private static final int LOOKUP_CHUNK = 1000;
+    private static final int MAX_SUBJECT_LENGTH = 100;
+    private static final Pattern REPORT_ID = Pattern.compile("[0-9a-f\\-]{36}");
+    public static final String NOTIFICATION_TYPE = "RESULT";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ResultService resultService;
+    @Autowired
+    private NotificationService notificationService;
+
+    @Value("${app.results.upload.max-rows:50000}")
+    private int maxRows;
+
+    @Value("${app.results.upload.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.results.upload.report-dir:${app.upload.dir:${user.dir}/uploads}/result-reports}")
+    private String reportDir;
+
+    private static class Row {
+        private final int line;
+        private final long studentId;
+        private final double marks;
+
+        Row(int line, long studentId, double marks) {
+            this.line = line;
+            this.studentId = studentId;
+            this.marks = marks;
+        }
+    }
+
+    private static class Rejection {
+        private final int line;
+        private final String content;
+        private final String error;
+
+        Rejection(int line, String content, String error) {
+            this.line = line;
+            this.content = content;
+            this.error = error;
+        }
+    }
+
+    public ResultUploadResponseDTO upload(InputStream csv) throws IOException {
+        long start = System.currentTimeMillis();
+        Map<String, String> knownSubjects = loadSubjects();
+        Map<String, List<Row>> bySubject = new LinkedHashMap<>();
+        List<Rejection> rejections = new ArrayList<>();
+        // Rows waiting for their student ids to be checked, looked up LOOKUP_CHUNK at a time
+        List<Object[]> unresolved = new ArrayList<>();
+        int total = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            int[] columns = columns(header);
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (++total > maxRows) {
+                    throw new IllegalArgumentException("At most " + maxRows + " rows can be uploaded at once");
+                }
+                String[] fields = line.split(",", -1);
+                String error = null;
+                Long studentId = null;
+                Double marks = null;
+                String subject = null;
+                if (fields.length <= Math.max(columns[0], Math.max(columns[1], columns[2]))) {
+                    error = "Expected studentId, subject and marks";
+                } else {
+                    try {
+                        studentId = Long.parseLong(fields[columns[0]].strip());
+                    } catch (NumberFormatException e) {
+                        error = "Invalid student id";
+                    }
+                    subject = fields[columns[1]].strip();
+                    if (error == null && (subject.isEmpty() || subject.length() > MAX_SUBJECT_LENGTH)) {
+                        error = "Subject must be between 1 and " + MAX_SUBJECT_LENGTH + " characters";
+                    } else if (error == null && !knownSubjects.isEmpty()) {
+                        subject = knownSubjects.get(subject.toLowerCase(Locale.ROOT));
+                        if (subject == null) {
+                            error = "Unknown subject: " + fields[columns[1]].strip();
+                        }
+                    }
+                    if (error == null) {
+                        try {
+                            marks = Double.parseDouble(fields[columns[2]].strip());
+                            if (marks.isNaN() || marks < 0 || marks > 100) {
+                                error = "Marks must be between 0 and 100";
+                            }
+                        } catch (NumberFormatException e) {
+                            error = "Invalid marks";
+                        }
+                    }
+                }
+                if (error != null) {
+                    rejections.add(new Rejection(lineNumber, line, error));
+                    continue;
+                }
+                unresolved.add(new Object[]{new Row(lineNumber, studentId, marks), subject, line});
+                if (unresolved.size() == LOOKUP_CHUNK) {
+                    resolve(unresolved, bySubject, rejections);
+                }
+            }
+        }
+        resolve(unresolved, bySubject, rejections);
+
+        ResultUploadResponseDTO response = new ResultUploadResponseDTO();
+        response.setTotalRows(total);
+        Map<Long, Set<String>> published = new HashMap<>();
+        for (Map.Entry<String, List<Row>> entry : bySubject.entrySet()) {
+            String subject = entry.getKey();
+            try {
+                int[] counts = publishSubject(subject, entry.getValue());
+                response.setInserted(response.getInserted() + counts[0]);
+                response.setUpdated(response.getUpdated() + counts[1]);
+                response.getPublishedSubjects().add(subject);
+                for (Row row : entry.getValue()) {
+                    published.computeIfAbsent(row.studentId, id -> new TreeSet<>()).add(subject);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Publishing results for subject {} failed, nothing written for it", subject, e);
+                response.getFailedSubjects().add(subject);
+                for (Row row : entry.getValue()) {
+                    rejections.add(new Rejection(row.line, null, "Subject " + subject + " could not be published"));
+                }
+            }
+        }
+        response.setRejected(rejections.size());
+
+        if (!published.isEmpty()) {
+            resultService.invalidateAfterBulkWrite(published.keySet());
+            notifyStudents(published);
+        }
+        if (!rejections.isEmpty()) {
+            response.setReportId(writeReport(rejections));
+        }
+        logger.info("Result upload: {} rows, {} inserted, {} updated, {} rejected, {} subjects published in {} ms",
+                total, response.getInserted(), response.getUpdated(), response.getRejected(),
+                response.getPublishedSubjects().size(), System.currentTimeMillis() - start);
+        return response;
+    }
+
+    /**
+     * Error report written by an earlier upload, if it still exists.
+     */
+    public Optional<Path> getReport(String reportId) {
+        if (reportId == null || !REPORT_ID.matcher(reportId).matches()) {
+            return Optional.empty();
+        }
+        Path report = Paths.get(reportDir).resolve(reportId + ".csv");
+        return Files.isRegularFile(report) ? Optional.of(report) : Optional.empty();
+    }
+
+    // Positions of studentId, subject and marks in the header
+    private static int[] columns(String header) {
+        String[] names = header.replace("\uFEFF", "").split(",", -1);
+        int[] columns = {-1, -1, -1};
+        for (int i = 0; i < names.length; i++) {
+            switch (names[i].strip().toLowerCase(Locale.ROOT).replace("_", "")) {
+                case "studentid" -> columns[0] = i;
+                case "subject" -> columns[1] = i;
+                case "marks" -> columns[2] = i;
+                default -> { }
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new IllegalArgumentException("Header must contain studentId, subject and marks columns");
+        }
+        return columns;
+    }
+
+    // Lower-cased name -> name as stored; empty when no subjects are configured, which allows any subject
+    private Map<String, String> loadSubjects() {
+        Map<String, String> subjects = new HashMap<>();
+        jdbcTemplate.query("SELECT name FROM subject WHERE name IS NOT NULL", rs -> {
+            String name = rs.getString(1).strip();
+            subjects.put(name.toLowerCase(Locale.ROOT), name);
+        });
+        return subjects;
+    }
+
+    private void resolve(List<Object[]> unresolved, Map<String, List<Row>> bySubject, List<Rejection> rejections) {
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>();
+        unresolved.forEach(pending -> ids.add(((Row) pending[0]).studentId));
+        Set<Long> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM student WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids), Long.class));
+        for (Object[] pending : unresolved) {
+            Row row = (Row) pending[0];
+            if (existing.contains(row.studentId)) {
+                bySubject.computeIfAbsent((String) pending[1], s -> new ArrayList<>()).add(row);
+            } else {
+                rejections.add(new Rejection(row.line, (String) pending[2], "Student not found: " + row.studentId));
+            }
+        }
+        unresolved.clear();
+    }
+
+    // Inserts or updates every row of one subject in a single transaction; returns {inserted, updated}
+    private int[] publishSubject(String subject, List<Row> rows) {
+        // A student listed twice for a subject gets the last value
+        Map<Long, Double> marks = new LinkedHashMap<>();
+        rows.forEach(row -> marks.put(row.studentId, row.marks));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            Map<Long, Long> existing = new HashMap<>();
+            List<Long> studentIds = new ArrayList<>(marks.keySet());
+            for (int i = 0; i < studentIds.size(); i += LOOKUP_CHUNK) {
+                MapSqlParameterSource params = new MapSqlParameterSource("subject", subject)
+                        .addValue("ids", studentIds.subList(i, Math.min(i + LOOKUP_CHUNK, studentIds.size())));
+                namedParameterJdbcTemplate.query(
+                        // Only results of the current semester are overwritten; earlier attempts stay on record
+                        "SELECT r.id, r.student_id FROM result r JOIN student s ON s.id = r.student_id " +
+                        "WHERE r.subject = :subject AND r.student_id IN (:ids) " +
+                        "AND (r.semester = s.semester OR r.semester IS NULL) ORDER BY r.id",
+                        params, rs -> {
+                            existing.put(rs.getLong(2), rs.getLong(1));
+                        });
+            }
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            marks.forEach((studentId, value) -> {
+                Long resultId = existing.get(studentId);
+                if (resultId != null) {
+                    updates.add(new Object[]{value, resultId});
+                } else {
+                    inserts.add(new Object[]{studentId, subject, value, studentId});
+                }
+            });
+            // New results belong to the student's current semester
+            batch("INSERT INTO result (student_id, subject, marks, semester) " +
+                    "SELECT ?, ?, ?, semester FROM student WHERE id = ?", inserts);
+            batch("UPDATE result SET marks = ? WHERE id = ?", updates);
+            return new int[]{inserts.size(), updates.size()};
+        });
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, rows, batchSize, (ps, args) -> {
+            for (int column = 0; column < args.length; column++) {
+                ps.setObject(column + 1, args[column]);
+            }
+        });
+    }
+
+    private void notifyStudents(Map<Long, Set<String>> published) {
+        Map<Long, Long> userIds = new HashMap<>();
+        List<Long> studentIds = new ArrayList<>(published.keySet());
+        for (int i = 0; i < studentIds.size(); i += LOOKUP_CHUNK) {
+            namedParameterJdbcTemplate.query("SELECT id, user_id FROM student WHERE id IN (:ids) AND user_id IS NOT NULL",
+                    new MapSqlParameterSource("ids", studentIds.subList(i, Math.min(i + LOOKUP_CHUNK, studentIds.size()))),
+                    rs -> {
+                        userIds.put(rs.getLong(1), rs.getLong(2));
+                    });
+        }
+        List<NotificationService.BulkNotification> notifications = new ArrayList<>();
+        published.forEach((studentId, subjects) -> {
+            Long userId = userIds.get(studentId);
+            if (userId != null) {
+                notifications.add(new NotificationService.BulkNotification(userId, "Results published",
+                        "Your results have been published for: " + String.join(", ", subjects)));
+            }
+        });
+        notificationService.createNotificationsInBulk(notifications, NOTIFICATION_TYPE);
+    }
+
+    private String writeReport(List<Rejection> rejections) throws IOException {
+        Path dir = Paths.get(reportDir);
+        Files.createDirectories(dir);
+        String reportId = UUID.randomUUID().toString();
+        rejections.sort((a, b) -> Integer.compare(a.line, b.line));
+        try (BufferedWriter writer = Files.newBufferedWriter(dir.resolve(reportId + ".csv"), StandardCharsets.UTF_8)) {
+            writer.write("line,error,content\r\n");
+            for (Rejection rejection : rejections) {
+                writer.write(rejection.line + "," + csv(rejection.error) + "," + csv(rejection.content) + "\r\n");
+            }
+        }
+        return reportId;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
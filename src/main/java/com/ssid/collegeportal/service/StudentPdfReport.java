@@ -0,0 +1,61 @@
+package com.ssid.collegeportal.service;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A per-student PDF report: a title, the student id and one table, written to the stream as
+ * rows are added so that long reports do not build up in memory. The caller owns the stream.
+ */
+public class StudentPdfReport {
+
+    // Table rows buffered before they are laid out and written to the PDF
+    private static final int ROWS_PER_FLUSH = 200;
+
+    private final Document document = new Document();
+    private final OutputStream out;
+    private final PdfPTable table;
+    private long rows;
+
+    public StudentPdfReport(OutputStream out, String title, Long studentId, String... columns) throws DocumentException {
+        this.out = out;
+        PdfWriter.getInstance(document, out).setCloseStream(false);
+        document.open();
+        document.add(new Paragraph(title));
+        document.add(new Paragraph("Student ID: " + studentId));
+        document.add(new Paragraph(" "));
+        table = new PdfPTable(columns.length);
+        // Incomplete tables release their rows each time they are added to the document
+        table.setComplete(false);
+        table.setHeaderRows(1);
+        for (String column : columns) {
+            table.addCell(column);
+        }
+    }
+
+    public void addRow(String... cells) throws DocumentException {
+        for (String cell : cells) {
+            table.addCell(cell);
+        }
+        if (++rows % ROWS_PER_FLUSH == 0) {
+            document.add(table);
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void finish() throws IOException, DocumentException {
+        table.setComplete(true);
+        document.add(table);
+        document.close();
+        out.flush();
+    }
+}
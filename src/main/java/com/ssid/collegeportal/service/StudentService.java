@@ -12,6 +12,12 @@ import java.util.Optional;
 public class StudentService {
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private AttendanceCheckInService attendanceCheckInService;
+    @Autowired
+    private ResultAnalyticsService resultAnalyticsService;
+    @Autowired
+    private ResultRankService resultRankService;
 
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
@@ -31,11 +37,19 @@ public class StudentService {
             student.setBranch(studentDetails.getBranch());
             student.setYear(studentDetails.getYear());
             student.setSemester(studentDetails.getSemester());
-            return studentRepository.save(student);
+            Student saved = studentRepository.save(student);
+            attendanceCheckInService.invalidateStudents();
+            // A branch change moves the student's results to another branch's statistics
+            resultAnalyticsService.invalidateAll();
+            resultRankService.invalidate();
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Student not found"));
     }
 
     public void deleteStudent(Long id) {
         studentRepository.deleteById(id);
+        attendanceCheckInService.invalidateStudents();
+        resultAnalyticsService.invalidateAll();
+        resultRankService.invalidate();
     }
 }
\ No newline at end of file
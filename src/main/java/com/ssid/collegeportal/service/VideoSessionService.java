@@ -1,29 +1,67 @@
 package com.ssid.collegeportal.service;
 
+import com.ssid.collegeportal.dto.AttendanceRequestDTO;
+import com.ssid.collegeportal.dto.BulkAttendanceResponseDTO;
 import com.ssid.collegeportal.dto.CreateVideoSessionRequest;
 import com.ssid.collegeportal.dto.VideoSessionResponse;
+import com.ssid.collegeportal.model.Faculty;
 import com.ssid.collegeportal.model.SessionStatus;
 import com.ssid.collegeportal.model.User;
 import com.ssid.collegeportal.model.VideoSession;
+import com.ssid.collegeportal.model.VideoSessionParticipation;
+import com.ssid.collegeportal.repository.BranchRepository;
+import com.ssid.collegeportal.repository.FacultyRepository;
+import com.ssid.collegeportal.repository.StudentRepository;
 import com.ssid.collegeportal.repository.UserRepository;
+import com.ssid.collegeportal.repository.VideoSessionParticipationRepository;
 import com.ssid.collegeportal.repository.VideoSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class VideoSessionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(VideoSessionService.class);
+
     @Autowired
     private VideoSessionRepository videoSessionRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private VideoSessionParticipationRepository participationRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private AttendanceBulkService attendanceBulkService;
+
+    // Share of the session a student must have been in the room to be marked present
+    @Value("${app.video-sessions.attendance.min-presence-percent:50}")
+    private int minPresencePercent;
+
     public VideoSessionResponse createSession(CreateVideoSessionRequest request, String teacherEmail) {
         User teacher = userRepository.findByEmail(teacherEmail)
             .orElseThrow(() -> new RuntimeException("Teacher not found"));
@@ -39,11 +77,17 @@ public class VideoSessionService {
         session.setScheduledTime(request.getScheduledTime());
         session.setEndTime(request.getScheduledTime().plusMinutes(request.getDurationMinutes()));
         session.setStatus(SessionStatus.SCHEDULED);
+        if (request.getBranchId() != null) {
+            session.setBranch(branchRepository.findById(request.getBranchId())
+                .orElseThrow(() -> new RuntimeException("Branch not found")));
+        }
+        session.setSemester(request.getSemester());
 
         VideoSession saved = videoSessionRepository.save(session);
         return mapToResponse(saved);
     }
 
+    @Transactional
     public VideoSessionResponse joinSession(String roomId, String userEmail) {
         VideoSession session = videoSessionRepository.findByRoomId(roomId)
             .orElseThrow(() -> new RuntimeException("Session not found"));
@@ -56,16 +100,51 @@ public class VideoSessionService {
             videoSessionRepository.save(session);
         }
 
+        LocalDateTime now = LocalDateTime.now();
+        if (session.getStatus() != SessionStatus.ENDED) {
+            VideoSessionParticipation participation = participationRepository
+                .findByVideoSessionIdAndUserId(session.getId(), user.getId())
+                .orElseGet(() -> {
+                    VideoSessionParticipation created = new VideoSessionParticipation();
+                    created.setVideoSessionId(session.getId());
+                    created.setUserId(user.getId());
+                    created.setFirstJoinedAt(now);
+                    return created;
+                });
+            if (participation.getActiveSince() == null) {
+                participation.setActiveSince(now);
+                participationRepository.save(participation);
+            }
+        }
+
         // Activate session if scheduled time reached
         if (session.getStatus() == SessionStatus.SCHEDULED &&
-            LocalDateTime.now().isAfter(session.getScheduledTime())) {
+            now.isAfter(session.getScheduledTime())) {
             session.setStatus(SessionStatus.ACTIVE);
+            session.setStartedAt(now);
             videoSessionRepository.save(session);
         }
 
         return mapToResponse(session);
     }
 
+    @Transactional
+    public VideoSessionResponse leaveSession(String roomId, String userEmail) {
+        VideoSession session = videoSessionRepository.findByRoomId(roomId)
+            .orElseThrow(() -> new RuntimeException("Session not found"));
+
+        User user = userRepository.findByEmail(userEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        participationRepository.findByVideoSessionIdAndUserId(session.getId(), user.getId())
+            .filter(participation -> participation.getActiveSince() != null)
+            .ifPresent(participation -> {
+                closeStint(participation, session.getStartedAt(), LocalDateTime.now());
+                participationRepository.save(participation);
+            });
+        return mapToResponse(session);
+    }
+
     public List<VideoSessionResponse> getTeacherSessions(String teacherEmail) {
         User teacher = userRepository.findByEmail(teacherEmail)
             .orElseThrow(() -> new RuntimeException("Teacher not found"));
@@ -92,12 +171,25 @@ public class VideoSessionService {
         }
         if (session.getStatus() != SessionStatus.ACTIVE) {
             session.setStatus(SessionStatus.ACTIVE);
+            if (session.getStartedAt() == null) {
+                session.setStartedAt(LocalDateTime.now());
+            }
             videoSessionRepository.save(session);
         }
         return mapToResponse(session);
     }
 
     public VideoSessionResponse endSession(String roomId, String actorEmail) {
+        return endSession(roomId, actorEmail, false);
+    }
+
+    /**
+     * Ends the session. With {@code recordAttendance}, every student of the session's branch and
+     * semester gets one attendance mark for the session's day in a single batched write: present
+     * if they spent at least the configured share of the session in the room, absent otherwise.
+     */
+    @Transactional
+    public VideoSessionResponse endSession(String roomId, String actorEmail, boolean recordAttendance) {
         VideoSession session = videoSessionRepository.findByRoomId(roomId)
             .orElseThrow(() -> new RuntimeException("Session not found"));
         User actor = userRepository.findByEmail(actorEmail)
@@ -108,10 +200,83 @@ public class VideoSessionService {
             throw new RuntimeException("Only the assigned teacher or admin can end this session");
         }
         if (session.getStatus() != SessionStatus.ENDED) {
+            LocalDateTime now = LocalDateTime.now();
             session.setStatus(SessionStatus.ENDED);
+            session.setEndedAt(now);
+            for (VideoSessionParticipation participation : participationRepository.findByVideoSessionId(session.getId())) {
+                if (participation.getActiveSince() != null) {
+                    closeStint(participation, session.getStartedAt(), now);
+                    participationRepository.save(participation);
+                }
+            }
             videoSessionRepository.save(session);
         }
-        return mapToResponse(session);
+
+        if (!recordAttendance) {
+            return mapToResponse(session);
+        }
+        if (session.isAttendanceRecorded()) {
+            throw new RuntimeException("Attendance has already been recorded for this session");
+        }
+        BulkAttendanceResponseDTO result = recordAttendance(session);
+        VideoSessionResponse response = mapToResponse(session);
+        int present = (int) result.getRows().stream()
+            .filter(row -> row.getAttendance() != null && Boolean.TRUE.equals(row.getAttendance().getPresent()))
+            .count();
+        response.setAttendancePresent(present);
+        response.setAttendanceAbsent(result.getRows().size() - result.getRejected() - present);
+        return response;
+    }
+
+    private BulkAttendanceResponseDTO recordAttendance(VideoSession session) {
+        if (session.getBranch() == null || session.getSemester() == null) {
+            throw new RuntimeException("Session has no branch and semester to record attendance for");
+        }
+        Faculty faculty = facultyRepository.findByUserId(session.getTeacher().getId())
+            .orElseThrow(() -> new RuntimeException("Session teacher has no faculty profile"));
+
+        // A session ended before it started has no time in it to be present for
+        if (session.getStartedAt() == null) {
+            throw new RuntimeException("Session was never started, so there is no attendance to record");
+        }
+        LocalDateTime start = session.getStartedAt();
+        long sessionSeconds = Math.max(1, Duration.between(start, session.getEndedAt()).getSeconds());
+        long requiredSeconds = Math.max(1, sessionSeconds * minPresencePercent / 100);
+        Map<Long, Long> secondsByUser = new HashMap<>();
+        for (VideoSessionParticipation participation : participationRepository.findByVideoSessionId(session.getId())) {
+            secondsByUser.put(participation.getUserId(), participation.getSecondsPresent());
+        }
+
+        LocalDate date = start.toLocalDate();
+        List<AttendanceRequestDTO> rows = new ArrayList<>();
+        for (StudentRepository.RosterEntry student : studentRepository.findRoster(session.getBranch().getId(), session.getSemester())) {
+            AttendanceRequestDTO row = new AttendanceRequestDTO();
+            row.setStudentId(student.getStudentId());
+            row.setFacultyId(faculty.getId());
+            row.setDate(date);
+            row.setPresent(secondsByUser.getOrDefault(student.getUserId(), 0L) >= requiredSeconds);
+            rows.add(row);
+        }
+        BulkAttendanceResponseDTO result = attendanceBulkService.upsert(rows);
+        session.setAttendanceRecorded(true);
+        videoSessionRepository.save(session);
+        logger.info("Recorded attendance for video session {}: {} rows ({} inserted, {} updated)", session.getRoomId(),
+            rows.size(), result.getInserted(), result.getUpdated());
+        return result;
+    }
+
+    /**
+     * Closes the participant's open stint. Only the part spent while the session was running
+     * counts: time in the room before it started, or in a session that never started, does not.
+     */
+    private static void closeStint(VideoSessionParticipation participation, LocalDateTime startedAt, LocalDateTime until) {
+        if (startedAt != null) {
+            LocalDateTime from = participation.getActiveSince().isBefore(startedAt) ? startedAt : participation.getActiveSince();
+            long seconds = Duration.between(from, until).getSeconds();
+            participation.setSecondsPresent(participation.getSecondsPresent() + Math.max(0, seconds));
+        }
+        participation.setActiveSince(null);
+        participation.setLastLeftAt(until);
     }
 
     private String generateRoomId() {
@@ -127,6 +292,11 @@ public class VideoSessionService {
         response.setScheduledTime(session.getScheduledTime());
         response.setEndTime(session.getEndTime());
         response.setSubject(session.getSubject());
+        response.setBranchId(session.getBranch() != null ? session.getBranch().getId() : null);
+        response.setSemester(session.getSemester());
+        response.setStartedAt(session.getStartedAt());
+        response.setEndedAt(session.getEndedAt());
+        response.setAttendanceRecorded(session.isAttendanceRecorded());
         response.setParticipantIds(session.getParticipantIds());
         response.setStatus(session.getStatus());
         response.setCreatedAt(session.getCreatedAt());
@@ -0,0 +1,35 @@
+-- Attendance rows remember the semester they were taken in; existing rows get the student's current one
+ALTER TABLE attendance ADD COLUMN semester INT;
+UPDATE attendance a JOIN student s ON s.id = a.student_id SET a.semester = s.semester WHERE a.semester IS NULL;
+
+-- Counts maintained alongside every attendance write
+CREATE TABLE attendance_student_rollup (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    semester INT NOT NULL,
+    branch_id BIGINT,
+    total BIGINT NOT NULL DEFAULT 0,
+    present BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_attendance_student_rollup UNIQUE (student_id, semester),
+    INDEX idx_attendance_student_rollup_branch (branch_id, semester)
+);
+
+CREATE TABLE attendance_branch_daily_rollup (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    branch_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    total BIGINT NOT NULL DEFAULT 0,
+    present BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_attendance_branch_daily_rollup UNIQUE (branch_id, date)
+);
+
+INSERT INTO attendance_student_rollup (student_id, semester, branch_id, total, present)
+SELECT a.student_id, a.semester, s.branch_id, COUNT(*), SUM(CASE WHEN a.present THEN 1 ELSE 0 END)
+FROM attendance a JOIN student s ON s.id = a.student_id
+GROUP BY a.student_id, a.semester, s.branch_id;
+
+INSERT INTO attendance_branch_daily_rollup (branch_id, date, total, present)
+SELECT s.branch_id, a.date, COUNT(*), SUM(CASE WHEN a.present THEN 1 ELSE 0 END)
+FROM attendance a JOIN student s ON s.id = a.student_id
+WHERE s.branch_id IS NOT NULL AND a.date IS NOT NULL
+GROUP BY s.branch_id, a.date;
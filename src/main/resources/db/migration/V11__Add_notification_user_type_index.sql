@@ -0,0 +1,2 @@
+-- Lets jobs check cheaply whether a user already got a notification of a given type today
+CREATE INDEX idx_notification_user_type_created ON notification (user_id, type, created_at);
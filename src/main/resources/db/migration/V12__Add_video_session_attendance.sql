@@ -0,0 +1,22 @@
+-- Cohort and actual start/end of a video session, so attendance can be recorded when it ends
+ALTER TABLE video_sessions
+    ADD COLUMN branch_id BIGINT,
+    ADD COLUMN semester INT,
+    ADD COLUMN started_at TIMESTAMP NULL,
+    ADD COLUMN ended_at TIMESTAMP NULL,
+    ADD COLUMN attendance_recorded BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD CONSTRAINT fk_video_sessions_branch FOREIGN KEY (branch_id) REFERENCES branch(id);
+
+-- Time each participant spent in a session, accumulated across reconnects
+CREATE TABLE video_session_participation (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    video_session_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    first_joined_at TIMESTAMP NOT NULL,
+    active_since TIMESTAMP NULL,
+    last_left_at TIMESTAMP NULL,
+    seconds_present BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_video_session_participation UNIQUE (video_session_id, user_id),
+    FOREIGN KEY (video_session_id) REFERENCES video_sessions(id),
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
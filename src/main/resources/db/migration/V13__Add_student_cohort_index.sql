@@ -0,0 +1,2 @@
+-- Class rosters look students up by branch, year and semester
+CREATE INDEX idx_student_cohort ON student (branch_id, year, semester);
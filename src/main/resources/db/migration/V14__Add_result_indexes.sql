@@ -0,0 +1,3 @@
+-- Transcripts are read by student, distributions and rankings by subject
+CREATE INDEX idx_result_student_subject ON result (student_id, subject);
+CREATE INDEX idx_result_subject ON result (subject);
@@ -0,0 +1,8 @@
+-- Credits weight subjects in GPA calculations; results remember the semester they belong to
+ALTER TABLE subject ADD COLUMN credits INT;
+ALTER TABLE result ADD COLUMN semester INT;
+
+-- Existing results are attributed to the student's current semester
+UPDATE result r JOIN student s ON s.id = r.student_id SET r.semester = s.semester WHERE r.semester IS NULL;
+
+CREATE INDEX idx_result_student_semester ON result (student_id, semester);
@@ -0,0 +1,7 @@
+-- What a document was uploaded for; NULL for standalone uploads, which are never swept
+ALTER TABLE document_files ADD COLUMN owner_type VARCHAR(20);
+
+-- Only attachments a note still references can be attributed with certainty
+UPDATE document_files d JOIN notes n ON n.attachment_file_id = d.id SET d.owner_type = 'NOTE';
+
+CREATE INDEX idx_document_files_owner_type ON document_files (owner_type, id);
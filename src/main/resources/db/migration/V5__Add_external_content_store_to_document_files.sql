@@ -0,0 +1,11 @@
+-- Document contents move from the file_data BLOB to the file-system content store
+ALTER TABLE document_files MODIFY file_data LONGBLOB NULL;
+ALTER TABLE document_files ADD COLUMN storage_path VARCHAR(512);
+ALTER TABLE document_files ADD COLUMN checksum VARCHAR(64);
+
+-- Progress of resumable background jobs
+CREATE TABLE migration_checkpoints (
+    name VARCHAR(100) NOT NULL PRIMARY KEY,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NULL
+);
@@ -0,0 +1,2 @@
+-- Students list notes by (branch, year, semester), newest first
+CREATE INDEX idx_notes_cohort ON notes (branch_name, year, semester, created_at);
@@ -0,0 +1,13 @@
+-- Daily note view and attachment download counts, flushed from memory by the access tracker
+CREATE TABLE note_access_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    stat_date DATE NOT NULL,
+    note_id BIGINT NOT NULL,
+    branch_name VARCHAR(255) NOT NULL,
+    year INT NOT NULL,
+    semester INT NOT NULL,
+    views BIGINT NOT NULL DEFAULT 0,
+    downloads BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_note_access_day UNIQUE (stat_date, note_id),
+    INDEX idx_note_access_cohort (branch_name, year, semester, stat_date)
+);
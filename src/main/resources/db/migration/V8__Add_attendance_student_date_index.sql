@@ -0,0 +1,2 @@
+-- Per-student attendance listings and summaries, optionally bounded by date
+CREATE INDEX idx_attendance_student_date ON attendance (student_id, date);
@@ -0,0 +1,11 @@
+-- One attendance row per student, faculty and day; re-submissions update it in place.
+-- Earlier duplicates are removed first, keeping the most recently written row.
+DELETE older FROM attendance older
+JOIN attendance newer
+  ON older.student_id = newer.student_id
+ AND older.faculty_id = newer.faculty_id
+ AND older.date = newer.date
+ AND older.id < newer.id;
+
+ALTER TABLE attendance
+    ADD CONSTRAINT uk_attendance_student_faculty_date UNIQUE (student_id, faculty_id, date);
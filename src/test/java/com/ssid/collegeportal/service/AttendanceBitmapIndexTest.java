@@ -0,0 +1,211 @@
+package com.ssid.collegeportal.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceBitmapIndexTest {
+
+    private static final long BRANCH = 10L;
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AttendanceBitmapIndex index;
+
+    // What the attendance table holds: student -> day -> absent
+    private final Map<Long, Map<LocalDate, Boolean>> stored = new HashMap<>();
+    private final Map<Long, Long> branches = new HashMap<>();
+    private Map<Long, Set<LocalDate>> requested;
+
+    @BeforeEach
+    void setUp() {
+        index = new AttendanceBitmapIndex(jdbcTemplate, mock(DataSource.class));
+        // Answers the two refresh queries from the maps above, filtered like their IN clauses
+        lenient().doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            if (sql.contains("FROM attendance")) {
+                for (Map.Entry<Long, Set<LocalDate>> entry : requested.entrySet()) {
+                    Map<LocalDate, Boolean> days = stored.getOrDefault(entry.getKey(), Map.of());
+                    for (LocalDate date : entry.getValue()) {
+                        if (days.containsKey(date)) {
+                            handler.processRow(attendanceRow(entry.getKey(), date, days.get(date)));
+                        }
+                    }
+                }
+            } else {
+                for (Long studentId : requested.keySet()) {
+                    handler.processRow(studentRow(studentId, branches.get(studentId)));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void summaryCountsClassDaysAndStreaks() {
+        mark(1, MONDAY, false);
+        mark(1, MONDAY.plusDays(1), false);
+        mark(1, MONDAY.plusDays(2), true);
+        // No class on day 3; it neither counts nor breaks the streak
+        mark(1, MONDAY.plusDays(4), false);
+        mark(1, MONDAY.plusDays(7), false);
+        mark(1, MONDAY.plusDays(8), false);
+        refresh(1);
+
+        assertSummary(index.summarize(1, MONDAY, MONDAY.plusDays(30)), 6, 5, 3, 3);
+        assertSummary(index.summarize(1, MONDAY, MONDAY.plusDays(2)), 3, 2, 0, 2);
+        assertSummary(index.summarize(1, MONDAY.plusDays(3), MONDAY.plusDays(4)), 1, 1, 1, 1);
+    }
+
+    @Test
+    void rangesAcrossWordBoundariesAreCountedExactly() {
+        // Last day held in one 64-day word, followed by the first days of the next
+        LocalDate lastOfWord = LocalDate.ofEpochDay(MONDAY.toEpochDay() | 63);
+        mark(1, lastOfWord.minusDays(1), false);
+        mark(1, lastOfWord, true);
+        mark(1, lastOfWord.plusDays(1), false);
+        mark(1, lastOfWord.plusDays(2), false);
+        refresh(1);
+
+        assertSummary(index.summarize(1, lastOfWord.minusDays(100), lastOfWord.plusDays(100)), 4, 3, 2, 2);
+        assertSummary(index.summarize(1, lastOfWord, lastOfWord.plusDays(1)), 2, 1, 1, 1);
+        assertSummary(index.summarize(1, lastOfWord.plusDays(1), lastOfWord.plusDays(1)), 1, 1, 1, 1);
+    }
+
+    @Test
+    void earlierAndLaterDaysGrowTheWindowWithoutLosingBits() {
+        mark(1, MONDAY, false);
+        refresh(1);
+        LocalDate longBefore = MONDAY.minusDays(400);
+        LocalDate longAfter = MONDAY.plusDays(300);
+        mark(1, longBefore, true);
+        mark(1, longAfter, false);
+        refresh(1);
+
+        Map<LocalDate, Boolean> calendar = index.calendar(1, longBefore.minusDays(1), longAfter.plusDays(1));
+
+        Map<LocalDate, Boolean> expected = new TreeMap<>();
+        expected.put(longBefore, false);
+        expected.put(MONDAY, true);
+        expected.put(longAfter, true);
+        assertEquals(expected, calendar);
+        assertSummary(index.summarize(1, longBefore, longAfter), 3, 2, 2, 2);
+    }
+
+    @Test
+    void refreshFollowsEditsAndDeletes() {
+        mark(1, MONDAY, true);
+        mark(1, MONDAY.plusDays(1), false);
+        refresh(1);
+        // Absence corrected to present, and the second day's only class deleted
+        mark(1, MONDAY, false);
+        stored.get(1L).remove(MONDAY.plusDays(1));
+        refreshDays(1, MONDAY, MONDAY.plusDays(1));
+
+        assertEquals(Map.of(MONDAY, true), index.calendar(1, MONDAY.minusDays(5), MONDAY.plusDays(5)));
+        assertSummary(index.summarize(1, MONDAY.minusDays(5), MONDAY.plusDays(5)), 1, 1, 1, 1);
+    }
+
+    @Test
+    void clearingADayThatWasNeverHeldAllocatesNothing() {
+        refreshDays(1, MONDAY);
+
+        assertTrue(index.calendar(1, MONDAY.minusDays(5), MONDAY.plusDays(5)).isEmpty());
+        assertSummary(index.summarize(1, MONDAY, MONDAY), 0, 0, 0, 0);
+    }
+
+    @Test
+    void absenteesAreListedPerBranch() {
+        branches.put(2L, BRANCH);
+        branches.put(3L, 20L);
+        mark(1, MONDAY, true);
+        mark(2, MONDAY, false);
+        mark(3, MONDAY, true);
+        refresh(1, 2, 3);
+
+        assertEquals(Map.of(1L, "Student 1"), index.absentees(BRANCH, MONDAY));
+        assertEquals(Map.of(3L, "Student 3"), index.absentees(20L, MONDAY));
+        assertTrue(index.absentees(BRANCH, MONDAY.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void studentsWithoutDaysSummarizeToZero() {
+        assertSummary(index.summarize(99, MONDAY, MONDAY.plusDays(10)), 0, 0, 0, 0);
+        assertTrue(index.calendar(99, MONDAY, MONDAY.plusDays(10)).isEmpty());
+    }
+
+    private void mark(long studentId, LocalDate date, boolean absent) {
+        branches.putIfAbsent(studentId, BRANCH);
+        stored.computeIfAbsent(studentId, id -> new TreeMap<>()).put(date, absent);
+    }
+
+    // Re-reads every stored day of the students, as a committed write to them would
+    private void refresh(long... studentIds) {
+        Map<Long, Set<LocalDate>> days = new HashMap<>();
+        for (long studentId : studentIds) {
+            days.put(studentId, new LinkedHashSet<>(stored.getOrDefault(studentId, Map.of()).keySet()));
+        }
+        refresh(days);
+    }
+
+    private void refreshDays(long studentId, LocalDate... dates) {
+        refresh(Map.of(studentId, new LinkedHashSet<>(List.of(dates))));
+    }
+
+    private void refresh(Map<Long, Set<LocalDate>> days) {
+        requested = days;
+        ReflectionTestUtils.invokeMethod(index, "refresh", days);
+    }
+
+    private static void assertSummary(AttendanceBitmapIndex.Summary summary, int held, int present, int current, int longest) {
+        assertEquals(held, summary.getDaysHeld(), "days held");
+        assertEquals(present, summary.getDaysPresent(), "days present");
+        assertEquals(current, summary.getCurrentStreak(), "current streak");
+        assertEquals(longest, summary.getLongestStreak(), "longest streak");
+    }
+
+    private static ResultSet attendanceRow(long studentId, LocalDate date, boolean absent) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(studentId);
+        when(rs.getDate(2)).thenReturn(Date.valueOf(date));
+        when(rs.getInt(3)).thenReturn(absent ? 0 : 1);
+        return rs;
+    }
+
+    private static ResultSet studentRow(long studentId, Long branchId) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(studentId);
+        when(rs.getLong(2)).thenReturn(branchId != null ? branchId : 0L);
+        when(rs.wasNull()).thenReturn(branchId == null);
+        when(rs.getString(3)).thenReturn("Student " + studentId);
+        return rs;
+    }
+}
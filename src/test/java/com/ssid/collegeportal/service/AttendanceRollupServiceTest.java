@@ -0,0 +1,132 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.service.AttendanceRollupService.Change;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceRollupServiceTest {
+
+    private static final long BRANCH = 10L;
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AttendanceBitmapIndex attendanceBitmapIndex;
+
+    @InjectMocks
+    private AttendanceRollupService attendanceRollupService;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> studentBatch;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> branchBatch;
+
+    @Test
+    void changesOfOneStudentSemesterAreMergedIntoOneRow() {
+        apply(
+                Change.added(1, BRANCH, 3, MONDAY, true),
+                Change.added(1, BRANCH, 3, MONDAY.plusDays(1), false),
+                Change.removed(1, BRANCH, 3, MONDAY.plusDays(2), true));
+
+        assertEquals(List.of(
+                Arrays.asList(1L, 3, BRANCH, 1L, 0L)), studentRows());
+        assertEquals(List.of(
+                Arrays.asList(BRANCH, Date.valueOf(MONDAY), 1L, 1L),
+                Arrays.asList(BRANCH, Date.valueOf(MONDAY.plusDays(1)), 1L, 0L),
+                Arrays.asList(BRANCH, Date.valueOf(MONDAY.plusDays(2)), -1L, -1L)), branchRows());
+    }
+
+    @Test
+    void markingMovesPresentButNotTotal() {
+        apply(
+                Change.marked(1, BRANCH, 3, MONDAY, false, true),
+                Change.marked(2, BRANCH, 3, MONDAY, true, false),
+                Change.added(1, BRANCH, 4, MONDAY, true));
+
+        // Each semester of a student is its own row; the branch-day sums all three
+        assertEquals(List.of(
+                Arrays.asList(1L, 3, BRANCH, 0L, 1L),
+                Arrays.asList(2L, 3, BRANCH, 0L, -1L),
+                Arrays.asList(1L, 4, BRANCH, 1L, 1L)), studentRows());
+        assertEquals(List.of(
+                Arrays.asList(BRANCH, Date.valueOf(MONDAY), 1L, 1L)), branchRows());
+    }
+
+    @Test
+    void movingARowTakesItFromOneSemesterAndDayToAnother() {
+        apply(
+                Change.removed(1, BRANCH, 3, MONDAY, true),
+                Change.added(1, BRANCH, 4, MONDAY.plusDays(1), true));
+
+        assertEquals(List.of(
+                Arrays.asList(1L, 3, BRANCH, -1L, -1L),
+                Arrays.asList(1L, 4, BRANCH, 1L, 1L)), studentRows());
+        assertEquals(List.of(
+                Arrays.asList(BRANCH, Date.valueOf(MONDAY), -1L, -1L),
+                Arrays.asList(BRANCH, Date.valueOf(MONDAY.plusDays(1)), 1L, 1L)), branchRows());
+    }
+
+    @Test
+    void studentsWithoutABranchOnlyMoveTheirStudentRow() {
+        apply(Change.added(1, null, 3, MONDAY, true));
+
+        assertEquals(List.of(
+                Arrays.asList(1L, 3, null, 1L, 1L)), studentRows());
+        verify(jdbcTemplate, never()).batchUpdate(contains("attendance_branch_daily_rollup"), anyList());
+    }
+
+    @Test
+    void unchangedMarksWriteNothingButStillRefreshTheIndex() {
+        List<Change> changes = List.of(
+                Change.marked(1, BRANCH, 3, MONDAY, true, true),
+                Change.marked(2, BRANCH, 3, MONDAY, false, null));
+
+        attendanceRollupService.apply(changes);
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(attendanceBitmapIndex).refreshAfterCommit(changes);
+    }
+
+    private void apply(Change... changes) {
+        List<Change> list = List.of(changes);
+        attendanceRollupService.apply(list);
+        verify(attendanceBitmapIndex).refreshAfterCommit(list);
+    }
+
+    private List<List<Object>> studentRows() {
+        verify(jdbcTemplate).batchUpdate(contains("attendance_student_rollup"), studentBatch.capture());
+        return asLists(studentBatch.getValue());
+    }
+
+    private List<List<Object>> branchRows() {
+        verify(jdbcTemplate).batchUpdate(contains("attendance_branch_daily_rollup"), branchBatch.capture());
+        return asLists(branchBatch.getValue());
+    }
+
+    private static List<List<Object>> asLists(List<Object[]> rows) {
+        return rows.stream().map(Arrays::asList).collect(Collectors.toList());
+    }
+}
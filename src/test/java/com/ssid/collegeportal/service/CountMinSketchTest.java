@@ -0,0 +1,66 @@
+package com.ssid.collegeportal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void repeatedAddsOfOneKeyAreCountedExactly() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+
+        assertEquals(3, sketch.add(7L, 3));
+        assertEquals(5, sketch.add(7L, 2));
+        assertEquals(5, sketch.estimate(7L));
+        assertEquals(5, sketch.getTotal());
+    }
+
+    @Test
+    void estimatesNeverUndercount() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        Map<Long, Long> actual = new HashMap<>();
+        Random random = new Random(42);
+        // Far more keys than counters, so most of them collide
+        for (int i = 0; i < 5000; i++) {
+            long key = random.nextInt(2000);
+            long count = 1 + random.nextInt(3);
+            sketch.add(key, count);
+            actual.merge(key, count, Long::sum);
+        }
+
+        actual.forEach((key, count) -> assertTrue(sketch.estimate(key) >= count, "estimate for " + key));
+        assertEquals(actual.values().stream().mapToLong(Long::longValue).sum(), sketch.getTotal());
+    }
+
+    @Test
+    void heavyKeysStandOutFromTheBackground() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (long key = 1; key <= 1000; key++) {
+            sketch.add(key, 1);
+        }
+        sketch.add(5000L, 500);
+
+        // Overcount stays within a few percent of the total
+        long heavy = sketch.estimate(5000L);
+        assertTrue(heavy >= 500 && heavy <= 500 + sketch.getTotal() / 50, "heavy estimate " + heavy);
+        assertTrue(sketch.estimate(123456L) <= sketch.getTotal() / 50, "unseen key estimate");
+    }
+
+    @Test
+    void depthIsCappedAndWidthRoundedUp() {
+        CountMinSketch sketch = new CountMinSketch(20, 3);
+
+        sketch.add(1L, 1);
+        sketch.add(2L, 1);
+
+        assertTrue(sketch.estimate(1L) >= 1);
+        assertTrue(sketch.estimate(2L) >= 1);
+        assertEquals(2, sketch.getTotal());
+    }
+}
@@ -0,0 +1,182 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.GpaTranscriptDTO;
+import com.ssid.collegeportal.dto.GradedResultDTO;
+import com.ssid.collegeportal.dto.SemesterGpaDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GpaServiceTest {
+
+    private static final long STUDENT = 1L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private GpaService gpaService;
+
+    private final List<ResultSet> subjects = new ArrayList<>();
+    private final List<ResultSet> results = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        gpaService = new GpaService(100);
+        ReflectionTestUtils.setField(gpaService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(gpaService, "defaultCredits", 3);
+    }
+
+    @Test
+    void marksMapToGradesOnTheTenPointScale() throws SQLException {
+        double[] marks = {100, 90, 89.99, 80, 79.99, 70, 60, 50, 45, 44.99, 40, 39.99, 0};
+        String[] grades = {"O", "O", "A+", "A+", "A", "A", "B+", "B", "C", "P", "P", "F", "F"};
+        int[] points = {10, 10, 9, 9, 8, 8, 7, 6, 5, 4, 4, 0, 0};
+        for (int i = 0; i < marks.length; i++) {
+            result(1, String.format("Subject %02d", i), marks[i]);
+        }
+        stubQueries();
+
+        List<GradedResultDTO> graded = gpaService.getTranscript(STUDENT).getSemesters().get(0).getResults();
+
+        assertEquals(marks.length, graded.size());
+        for (int i = 0; i < marks.length; i++) {
+            assertEquals(marks[i], graded.get(i).getMarks(), 1e-9);
+            assertEquals(grades[i], graded.get(i).getGrade(), "grade for " + marks[i]);
+            assertEquals(points[i], graded.get(i).getGradePoints(), "points for " + marks[i]);
+        }
+    }
+
+    @Test
+    void gpaIsWeightedByCredits() throws SQLException {
+        subject("MATHS", 4);
+        subject("Physics", 2);
+        result(1, "Maths", 92);   // O, 10 x 4
+        result(1, "Physics", 65); // B+, 7 x 2
+        result(2, "Maths", 55);   // B, 6 x 4
+        result(2, "Lab", 38);     // F, 0 x 3 (default credits)
+        stubQueries();
+
+        GpaTranscriptDTO transcript = gpaService.getTranscript(STUDENT);
+
+        SemesterGpaDTO first = transcript.getSemesters().get(0);
+        assertEquals(9.0, first.getSgpa(), 1e-9);
+        assertEquals(6, first.getCredits());
+        assertEquals(6, first.getEarnedCredits());
+        SemesterGpaDTO second = transcript.getSemesters().get(1);
+        assertEquals(3.43, second.getSgpa(), 1e-9);
+        assertEquals(7, second.getCredits());
+        assertEquals(4, second.getEarnedCredits());
+        // (40 + 14 + 24 + 0) / 13
+        assertEquals(6.0, transcript.getCgpa(), 1e-9);
+        assertEquals(13, transcript.getCredits());
+        assertEquals(10, transcript.getEarnedCredits());
+    }
+
+    @Test
+    void subjectsWithoutCreditsDoNotCount() throws SQLException {
+        subject("Seminar", 0);
+        result(1, "Maths", 75);
+        result(1, "Seminar", 20);
+        stubQueries();
+
+        SemesterGpaDTO semester = gpaService.getTranscript(STUDENT).getSemesters().get(0);
+
+        assertEquals(8.0, semester.getSgpa(), 1e-9);
+        assertEquals(3, semester.getCredits());
+    }
+
+    @Test
+    void laterResultForASubjectReplacesTheEarlierOne() throws SQLException {
+        result(1, "Maths", 30);
+        result(1, "Maths", 81);
+        stubQueries();
+
+        SemesterGpaDTO semester = gpaService.getTranscript(STUDENT).getSemesters().get(0);
+
+        assertEquals(1, semester.getResults().size());
+        assertEquals(9.0, semester.getSgpa(), 1e-9);
+    }
+
+    @Test
+    void resultChangeRegradesOnlyItsSemester() throws SQLException {
+        result(1, "Maths", 92);
+        result(2, "Maths", 55);
+        stubQueries();
+        gpaService.getTranscript(STUDENT);
+
+        ResultSet regraded = mock(ResultSet.class);
+        when(regraded.getString(1)).thenReturn("Maths");
+        when(regraded.getDouble(2)).thenReturn(85.0);
+        doAnswer(invocation -> {
+            ((RowCallbackHandler) invocation.getArgument(1)).processRow(regraded);
+            return null;
+        }).when(jdbcTemplate).query(contains("semester = ?"), any(RowCallbackHandler.class), eq(STUDENT), eq(2));
+
+        gpaService.onResultChanged(STUDENT, 2);
+        GpaTranscriptDTO transcript = gpaService.getTranscript(STUDENT);
+
+        Map<Integer, Double> sgpa = transcript.getSemesters().stream()
+                .collect(Collectors.toMap(SemesterGpaDTO::getSemester, SemesterGpaDTO::getSgpa));
+        assertEquals(10.0, sgpa.get(1), 1e-9);
+        assertEquals(9.0, sgpa.get(2), 1e-9);
+        assertEquals(9.5, transcript.getCgpa(), 1e-9);
+        // The student's results were read once; the change only re-read semester 2
+        verify(jdbcTemplate, times(1)).query(contains("semester IS NOT NULL"), any(RowCallbackHandler.class), eq(STUDENT));
+    }
+
+    private void subject(String name, int credits) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn(name);
+        when(rs.getInt(2)).thenReturn(credits);
+        subjects.add(rs);
+    }
+
+    private void result(int semester, String subject, double marks) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(semester);
+        when(rs.getString(2)).thenReturn(subject);
+        when(rs.getDouble(3)).thenReturn(marks);
+        results.add(rs);
+    }
+
+    private void stubQueries() {
+        doAnswer(feed(subjects)).when(jdbcTemplate)
+                .query(contains("FROM subject"), any(RowCallbackHandler.class));
+        doAnswer(feed(results)).when(jdbcTemplate)
+                .query(contains("semester IS NOT NULL"), any(RowCallbackHandler.class), eq(STUDENT));
+    }
+
+    private static Answer<Void> feed(List<ResultSet> rows) {
+        return invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : rows) {
+                handler.processRow(rs);
+            }
+            return null;
+        };
+    }
+}
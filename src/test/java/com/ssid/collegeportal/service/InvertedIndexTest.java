@@ -0,0 +1,120 @@
+package com.ssid.collegeportal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void tokenizeLowercasesAndDropsStopWordsAndShortTokens() {
+        assertEquals(List.of("laws", "thermodynamics", "2nd", "look"),
+                InvertedIndex.tokenize("The Laws of Thermodynamics, a 2nd look!"));
+        assertTrue(InvertedIndex.tokenize("  ").isEmpty());
+        assertTrue(InvertedIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void termFrequenciesAreWeighted() {
+        Map<String, Integer> terms = InvertedIndex.termFrequencies("graph graph tree", 1);
+        InvertedIndex.addTermFrequencies(terms, "Graph notes", 3);
+
+        assertEquals(Map.of("graph", 5, "tree", 1, "notes", 3), terms);
+    }
+
+    @Test
+    void moreOccurrencesRankHigher() {
+        put(1, "graph tree");
+        put(2, "graph graph graph tree");
+        put(3, "unrelated words");
+
+        assertEquals(List.of(2L, 1L), ids(search("graph")));
+    }
+
+    @Test
+    void rareTermsOutweighCommonOnes() {
+        put(1, "algebra notes");
+        put(2, "calculus notes");
+        put(3, "geometry notes");
+
+        List<InvertedIndex.Hit> hits = search("algebra notes");
+
+        assertEquals(1L, hits.get(0).getDocId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+        assertEquals(3, hits.size());
+    }
+
+    @Test
+    void shorterDocumentsWinForTheSameTermFrequency() {
+        put(1, "entropy " + "filler ".repeat(20));
+        put(2, "entropy short");
+
+        assertEquals(List.of(2L, 1L), ids(search("entropy")));
+    }
+
+    @Test
+    void lastTermMatchesAsPrefixOnlyWhenAsked() {
+        put(1, "thermodynamics lecture");
+        put(2, "thermal physics");
+        put(3, "optics");
+
+        assertEquals(List.of(1L, 2L), ids(index.search(List.of("therm"), true, null, 10)).stream().sorted().collect(Collectors.toList()));
+        assertTrue(index.search(List.of("therm"), false, null, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search(List.of("thermo"), true, null, 10)));
+    }
+
+    @Test
+    void putReplacesTheWholeDocument() {
+        put(1, "alpha");
+        put(1, "beta");
+
+        assertTrue(search("alpha").isEmpty());
+        assertEquals(List.of(1L), ids(search("beta")));
+        assertEquals(1, index.size());
+        assertEquals(1, index.termCount());
+    }
+
+    @Test
+    void removeDropsPostingsAndLength() {
+        put(1, "alpha beta");
+        put(2, "beta");
+
+        index.remove(1);
+
+        assertFalse(index.contains(1));
+        assertTrue(search("alpha").isEmpty());
+        assertEquals(1, index.termCount());
+        assertEquals(List.of(2L), ids(search("beta")));
+    }
+
+    @Test
+    void filterAndLimitApply() {
+        for (long id = 1; id <= 5; id++) {
+            put(id, "topic " + "topic ".repeat((int) id));
+        }
+
+        assertEquals(List.of(5L, 4L), ids(index.search(List.of("topic"), false, null, 2)));
+        assertEquals(List.of(4L, 2L), ids(index.search(List.of("topic"), false, id -> id % 2 == 0, 10)));
+        assertTrue(index.search(List.of("topic"), false, null, 0).isEmpty());
+    }
+
+    private void put(long id, String text) {
+        index.put(id, InvertedIndex.termFrequencies(text, 1));
+    }
+
+    private List<InvertedIndex.Hit> search(String query) {
+        return index.search(InvertedIndex.tokenize(query), false, null, 10);
+    }
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::getDocId).collect(Collectors.toList());
+    }
+}
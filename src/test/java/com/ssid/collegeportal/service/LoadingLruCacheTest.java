@@ -0,0 +1,152 @@
+package com.ssid.collegeportal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadingLruCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadsOnceAndServesHitsAfterwards() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+
+        assertEquals("v1", cache.get(1L, this::load));
+        assertEquals("v1", cache.get(1L, this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+        assertEquals(1L, cache.getStats().get("loads"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(2);
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        // Touching 1 makes 2 the eldest
+        cache.get(1L, this::load);
+
+        cache.get(3L, this::load);
+
+        assertEquals("v1", cache.getIfPresent(1L));
+        assertNull(cache.getIfPresent(2L));
+        assertEquals("v3", cache.getIfPresent(3L));
+        assertEquals(1L, cache.getStats().get("evictions"));
+        assertEquals(2, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get(1L, key -> {
+                loading.countDown();
+                await(release);
+                return load(key);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Thread[] waiter = new Thread[1];
+            Future<String> second = executor.submit(() -> {
+                waiter[0] = Thread.currentThread();
+                return cache.get(1L, this::load);
+            });
+            // The second caller parks on the first load instead of starting its own
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((waiter[0] == null || waiter[0].getState() != Thread.State.WAITING) && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals("v1", first.get(5, TimeUnit.SECONDS));
+            assertSame(first.get(), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void loadInvalidatedWhileRunningIsNotCached() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+
+        // A write lands while the load is still reading
+        String value = cache.get(1L, key -> {
+            String loaded = load(key);
+            cache.invalidate(key);
+            return loaded;
+        });
+
+        assertEquals("v1", value);
+        assertNull(cache.getIfPresent(1L));
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateAllAlsoDiscardsRunningLoads() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+        cache.get(2L, this::load);
+
+        cache.get(1L, key -> {
+            cache.invalidateAll();
+            return load(key);
+        });
+
+        assertNull(cache.getIfPresent(1L));
+        assertNull(cache.getIfPresent(2L));
+    }
+
+    @Test
+    void failedLoadIsRethrownAndNotCached() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> cache.get(1L, key -> {
+                    throw new IllegalStateException("database down");
+                }));
+
+        assertEquals("database down", failure.getMessage());
+        assertEquals(1L, cache.getStats().get("loadFailures"));
+        assertEquals("v1", cache.get(1L, this::load));
+    }
+
+    @Test
+    void nullResultsAreNotCached() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+
+        assertNull(cache.get(1L, key -> null));
+
+        assertNull(cache.getIfPresent(1L));
+        assertEquals(0, cache.getStats().get("entries"));
+    }
+
+    private String load(Long key) {
+        loads.incrementAndGet();
+        return "v" + key;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.ssid.collegeportal.service;
+
+import com.ssid.collegeportal.dto.ResultRankDTO;
+import com.ssid.collegeportal.model.Branch;
+import com.ssid.collegeportal.model.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResultRankServiceTest {
+
+    private static final long BRANCH = 10L;
+    private static final int SEMESTER = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ResultRankService resultRankService;
+
+    private final List<ResultSet> rows = new ArrayList<>();
+
+    @Test
+    void studentsWithEqualMarksShareARank() throws SQLException {
+        row(1, "Maths", 90);
+        row(2, "Maths", 80);
+        row(3, "Maths", 80);
+        row(4, "Maths", 70);
+        build();
+
+        assertRank(rank(2, "Maths"), 2, 4, 75.0);
+        assertRank(rank(3, "Maths"), 2, 4, 75.0);
+        assertRank(rank(4, "Maths"), 4, 4, 25.0);
+        assertRank(rank(1, "Maths"), 1, 4, 100.0);
+    }
+
+    @Test
+    void fractionalMarksWithinOneWholeMarkAreRankedExactly() throws SQLException {
+        row(1, "Maths", 80.25);
+        row(2, "Maths", 80.5);
+        row(3, "Maths", 80.5);
+        row(4, "Maths", 80.75);
+        row(5, "Maths", 79.9);
+        row(6, "Maths", 100);
+        build();
+
+        assertRank(rank(6, "Maths"), 1, 6, 100.0);
+        assertRank(rank(4, "Maths"), 2, 6, 500.0 / 6);
+        assertRank(rank(2, "Maths"), 3, 6, 400.0 / 6);
+        assertRank(rank(3, "Maths"), 3, 6, 400.0 / 6);
+        assertRank(rank(1, "Maths"), 5, 6, 200.0 / 6);
+        assertRank(rank(5, "Maths"), 6, 6, 100.0 / 6);
+    }
+
+    @Test
+    void topListsBestStudentsInOrderWithSharedRanks() throws SQLException {
+        row(1, "Maths", 60);
+        row(2, "Maths", 95.5);
+        row(3, "Maths", 80);
+        row(4, "Maths", 80);
+        build();
+
+        List<ResultRankDTO> top = resultRankService.getTop(BRANCH, SEMESTER, "Maths", 3);
+
+        assertEquals(3, top.size());
+        assertEquals(2L, top.get(0).getStudentId());
+        assertEquals(95.5, top.get(0).getMarks(), 1e-9);
+        assertEquals(1, top.get(0).getRank());
+        assertEquals(2, top.get(1).getRank());
+        assertEquals(2, top.get(2).getRank());
+        assertEquals(4, top.get(2).getOutOf());
+    }
+
+    @Test
+    void overallRanksOnTheAverageOfAllSubjects() throws SQLException {
+        row(1, "Maths", 90);
+        row(1, "Physics", 50);
+        row(2, "Maths", 60);
+        row(2, "Physics", 60);
+        build();
+
+        List<ResultRankDTO> ranks = resultRankService.getStudentRanks(1L);
+
+        ResultRankDTO overall = ranks.get(ranks.size() - 1);
+        assertEquals(ResultRankService.OVERALL, overall.getSubject());
+        assertEquals(70.0, overall.getMarks(), 1e-9);
+        assertEquals(1, overall.getRank());
+        assertEquals(2, overall.getOutOf());
+    }
+
+    @Test
+    void latestResultWinsWhenASubjectIsListedTwice() throws SQLException {
+        row(1, "Maths", 40);
+        row(1, "Maths", 85);
+        row(2, "Maths", 70);
+        build();
+
+        assertRank(rank(1, "Maths"), 1, 2, 100.0);
+    }
+
+    @Test
+    void changedResultIsReadBackInsteadOfDroppingTheSubject() throws SQLException {
+        row(1, "Maths", 90);
+        row(1, "Maths", 95);
+        row(2, "Maths", 80);
+        build();
+        // One of student 1's two Maths results was deleted; the other one remains
+        when(jdbcTemplate.queryForList(anyString(), eq(Double.class), eq(1L), eq(SEMESTER), eq("Maths"))).thenReturn(List.of(75.0));
+
+        resultRankService.onResultChanged(student(1), SEMESTER, "Maths");
+
+        ResultRankDTO rank = rank(1, "Maths");
+        assertEquals(75.0, rank.getMarks(), 1e-9);
+        assertRank(rank, 2, 2, 50.0);
+    }
+
+    @Test
+    void studentLeavesTheGroupWhenNoResultRemains() throws SQLException {
+        row(1, "Maths", 90);
+        row(2, "Maths", 80);
+        build();
+        when(jdbcTemplate.queryForList(anyString(), eq(Double.class), eq(1L), eq(SEMESTER), eq("Maths"))).thenReturn(List.of());
+
+        resultRankService.onResultChanged(student(1), SEMESTER, "Maths");
+
+        assertTrue(resultRankService.getStudentRanks(1L).isEmpty());
+        List<ResultRankDTO> top = resultRankService.getTop(BRANCH, SEMESTER, "Maths", 10);
+        assertEquals(1, top.size());
+        assertEquals(2L, top.get(0).getStudentId());
+        assertEquals(1, top.get(0).getRank());
+    }
+
+    @Test
+    void attemptsInDifferentSemestersAreRankedSeparately() throws SQLException {
+        row(1, 2, "Maths", 35);
+        row(2, 2, "Maths", 60);
+        row(1, 3, "Maths", 90);
+        row(3, 3, "Maths", 70);
+        build();
+
+        List<ResultRankDTO> ranks = resultRankService.getStudentRanks(1L);
+
+        // Semester 2 Maths, semester 2 overall, semester 3 Maths, semester 3 overall
+        assertEquals(4, ranks.size());
+        assertEquals(2, ranks.get(0).getSemester());
+        assertRank(ranks.get(0), 2, 2, 50.0);
+        assertEquals(35.0, ranks.get(1).getMarks(), 1e-9);
+        assertEquals(3, ranks.get(2).getSemester());
+        assertRank(ranks.get(2), 1, 2, 100.0);
+        assertEquals(90.0, ranks.get(3).getMarks(), 1e-9);
+        assertEquals(2, resultRankService.getTop(BRANCH, 3, "Maths", 10).size());
+    }
+
+    private ResultRankDTO rank(long studentId, String subject) {
+        return resultRankService.getStudentRanks(studentId).stream()
+                .filter(rank -> subject.equals(rank.getSubject()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void assertRank(ResultRankDTO rank, int expectedRank, int outOf, double percentile) {
+        assertEquals(expectedRank, rank.getRank());
+        assertEquals(outOf, rank.getOutOf());
+        assertEquals(percentile, rank.getPercentile(), 1e-9);
+    }
+
+    private void row(long studentId, String subject, double marks) throws SQLException {
+        row(studentId, SEMESTER, subject, marks);
+    }
+
+    private void row(long studentId, int semester, String subject, double marks) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(studentId);
+        when(rs.getLong(2)).thenReturn(BRANCH);
+        when(rs.getInt(3)).thenReturn(semester);
+        when(rs.getString(4)).thenReturn("Student " + studentId);
+        when(rs.getString(5)).thenReturn(subject);
+        when(rs.getDouble(6)).thenReturn(marks);
+        rows.add(rs);
+    }
+
+    // Rows are fed in result id order, as the rebuild query returns them; the index builds on first read
+    private void build() {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : rows) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        resultRankService.getStudentRanks(0L);
+    }
+
+    private static Student student(long id) {
+        Branch branch = new Branch();
+        branch.setId(BRANCH);
+        Student student = new Student();
+        student.setId(id);
+        student.setBranch(branch);
+        student.setSemester(SEMESTER);
+        return student;
+    }
+}